@@ -20,6 +20,7 @@ import com.alibaba.csp.sentinel.context.NullContext;
 import com.alibaba.csp.sentinel.log.RecordLog;
 import com.alibaba.csp.sentinel.slotchain.ProcessorSlot;
 import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
+import com.alibaba.csp.sentinel.util.TimeUtil;
 
 /**
  * The entry for asynchronous resources.
@@ -31,8 +32,27 @@ public class AsyncEntry extends CtEntry {
 
     private Context asyncContext;
 
+    /**
+     * The {@link TimeUtil#nanoTime()} before which the invocation should not start, if {@link #passPostponed}.
+     */
+    private long passTime;
+    private boolean passPostponed;
+    /**
+     * Whether rate limiters may reserve a later pass time instead of making the calling thread wait.
+     */
+    private final boolean passReservable;
+
     AsyncEntry(ResourceWrapper resourceWrapper, ProcessorSlot<Object> chain, Context context) {
+        this(resourceWrapper, chain, context, false);
+    }
+
+    AsyncEntry(ResourceWrapper resourceWrapper, ProcessorSlot<Object> chain, Context context, boolean passReservable) {
         super(resourceWrapper, chain, context);
+        this.passReservable = passReservable;
+        if (parent instanceof CtEntry) {
+            // The parent stays referenced by this entry after it exits, so it must not be recycled.
+            ((CtEntry)parent).recyclable = false;
+        }
     }
 
     /**
@@ -61,6 +81,42 @@ public class AsyncEntry extends CtEntry {
         return asyncContext;
     }
 
+    /**
+     * Whether rate limiters may reserve a later pass time for this entry instead of making the calling thread
+     * wait, which is only the case for entries created by {@link ResourceHandle#reservingAsyncEntry(int, Object...)}.
+     *
+     * @return true if the pass time may be reserved
+     */
+    public boolean isPassReservable() {
+        return passReservable;
+    }
+
+    /**
+     * Postpone the start of the invocation. Used by rate limiters which reserve a later pass time for an
+     * asynchronous entry instead of blocking the calling thread, see {@link #isPassReservable()}.
+     *
+     * @param waitNanos time to wait from now in nanoseconds
+     */
+    public void postponePass(long waitNanos) {
+        long time = TimeUtil.nanoTime() + waitNanos;
+        if (!passPostponed || time - passTime > 0) {
+            passTime = time;
+            passPostponed = true;
+        }
+    }
+
+    /**
+     * Get how long the invocation should still wait before it starts, as reserved by the rate limiters of
+     * the resource, see {@link #isPassReservable()}.
+     * {@link com.alibaba.csp.sentinel.concurrent.AsyncEntryCompletion#runWhenPassed(Runnable)} waits for it
+     * without blocking any thread.
+     *
+     * @return wait time in nanoseconds, 0 if the invocation can start now
+     */
+    public long getPassWaitNanos() {
+        return passPostponed ? Math.max(0, passTime - TimeUtil.nanoTime()) : 0;
+    }
+
     /**
      * The async context should not be initialized until the node for current resource has been set to current entry.
      */
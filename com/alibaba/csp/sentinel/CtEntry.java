@@ -36,6 +36,20 @@ class CtEntry extends Entry {
     protected ProcessorSlot<Object> chain;
     protected Context context;
 
+    /**
+     * Whether this entry is taken from {@link CtEntryPool}.
+     */
+    boolean pooled = false;
+    /**
+     * Whether this entry is returned to {@link CtEntryPool} on exit.
+     */
+    boolean recyclable = false;
+    /**
+     * Incremented whenever this entry is reused, so that a {@link RecycledEntryHandle} of a former invocation
+     * can tell it no longer owns the entry.
+     */
+    int generation = 0;
+
     /**
      * 创建CtEntry对象主要做了两件事
      * 1、初始化上下文context，执行链chain
@@ -53,6 +67,41 @@ class CtEntry extends Entry {
         setUpEntryFor(context);
     }
 
+    /**
+     * Create an empty entry for {@link CtEntryPool}, which must be set up by
+     * {@link #reuse(ResourceWrapper, ProcessorSlot, Context)} before use.
+     */
+    CtEntry() {
+        super(null);
+    }
+
+    /**
+     * Reuse a recycled entry for another invocation, see {@link CtEntryPool}.
+     */
+    void reuse(ResourceWrapper resourceWrapper, ProcessorSlot<Object> chain, Context context) {
+        reset(resourceWrapper);
+        this.chain = chain;
+        this.context = context;
+        this.parent = null;
+        this.child = null;
+        this.pooled = true;
+        this.recyclable = true;
+        this.generation++;
+        setUpEntryFor(context);
+    }
+
+    /**
+     * Exit this pooled entry through a handle given out for provided generation of it.
+     *
+     * @throws ErrorEntryFreeException if the entry has been reused since, or has already exited
+     */
+    Entry exit(int generation, int count, Object... args) throws ErrorEntryFreeException {
+        if (generation != this.generation) {
+            throw new ErrorEntryFreeException("Duplicate exit of recycled entry: " + resourceWrapper.getName());
+        }
+        return trueExit(count, args);
+    }
+
     private void setUpEntryFor(Context context) {
         // The entry should not be associated to NullContext.
         if (context instanceof NullContext) {
@@ -91,6 +140,10 @@ class CtEntry extends Entry {
      * @throws ErrorEntryFreeException
      */
     protected void exitForContext(Context context, int count, Object... args) throws ErrorEntryFreeException {
+        if (context == null && pooled) {
+            // Exited again while still in the pool, see RecycledEntryHandle for an exit after reuse.
+            throw new ErrorEntryFreeException("Duplicate exit of recycled entry: " + resourceWrapper.getName());
+        }
         if (context != null) {
             // Null context should exit without clean-up.
             if (context instanceof NullContext) {
@@ -106,8 +159,10 @@ class CtEntry extends Entry {
                 // Clean previous call stack.
                 CtEntry e = (CtEntry)context.getCurEntry();
                 while (e != null) {
+                    // Read the parent first, as the entry may be recycled on exit.
+                    CtEntry parentEntry = (CtEntry)e.parent;
                     e.exit(count, args);
-                    e = (CtEntry)e.parent;
+                    e = parentEntry;
                 }
                 String errorMessage = String.format("The order of entry exit can't be paired with the order of entry"
                     + ", current entry in context: <%s>, but expected: <%s>", curEntryNameInContext, resourceWrapper.getName());
@@ -129,6 +184,7 @@ class CtEntry extends Entry {
                 }
                 //如果不存在parent就会销毁context
                 if (parent == null) {
+                    context.endInvocation();
                     // Default context (auto entered) will be exited automatically.
                     if (ContextUtil.isDefaultContext(context)) {
                         ContextUtil.exit();
@@ -137,6 +193,9 @@ class CtEntry extends Entry {
                 // Clean the reference of context in current entry to avoid duplicate exit.
                 //set context=null
                 clearEntryContext();
+                if (pooled) {
+                    CtEntryPool.release(this);
+                }
             }
         }
     }
@@ -0,0 +1,126 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel;
+
+import com.alibaba.csp.sentinel.config.SentinelConfig;
+import com.alibaba.csp.sentinel.context.Context;
+import com.alibaba.csp.sentinel.context.NullContext;
+import com.alibaba.csp.sentinel.log.RecordLog;
+import com.alibaba.csp.sentinel.slotchain.ProcessorSlot;
+import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
+
+/**
+ * <p>
+ * Per-thread pool of {@link CtEntry}s, used when {@link SentinelConfig#ENTRY_RECYCLE} is enabled, so that
+ * a steady-state synchronous entry and exit pair allocates no entry object within an entered context, only
+ * a small {@link RecycledEntryHandle} once the entry passes. An entry which enters the default context
+ * automatically still creates that context, which is never reused, as it may be held by the caller after it
+ * has exited.
+ * </p>
+ * <p>
+ * An exited entry goes back to the pool of the exiting thread and is handed out again by the next entry
+ * on that thread. Callers get a handle bound to the generation of the entry, so a second exit through it
+ * throws {@link ErrorEntryFreeException}, whether the entry is still in the pool or already reused by the
+ * next invocation, which is left untouched. An entry which never exits is only lost to the pool; when the
+ * number of entries of a thread which have not exited grows beyond {@link #LEAK_THRESHOLD}, a possible leak
+ * is logged once for the thread.
+ * </p>
+ * <p>
+ * Asynchronous entries are never pooled, and an entry which becomes the parent of an {@link AsyncEntry} is
+ * not recycled, as the asynchronous entry keeps referring to it.
+ * </p>
+ */
+final class CtEntryPool {
+
+    static final boolean ENABLED = SentinelConfig.entryRecycle();
+
+    private static final int MAX_POOLED = 32;
+    private static final int LEAK_THRESHOLD = 1024;
+
+    private static final ThreadLocal<CtEntryPool> POOLS = new ThreadLocal<CtEntryPool>() {
+        @Override
+        protected CtEntryPool initialValue() {
+            return new CtEntryPool();
+        }
+    };
+
+    private final CtEntry[] entries = new CtEntry[MAX_POOLED];
+    private int size = 0;
+    private int outstanding = 0;
+    private boolean leakWarned = false;
+
+    /**
+     * Get an entry for a new synchronous invocation, from the pool of current thread if recycling is enabled.
+     */
+    static CtEntry acquire(ResourceWrapper resourceWrapper, ProcessorSlot<Object> chain, Context context) {
+        if (!ENABLED || context instanceof NullContext) {
+            return new CtEntry(resourceWrapper, chain, context);
+        }
+        return POOLS.get().borrow(resourceWrapper, chain, context);
+    }
+
+    /**
+     * Get what is returned to the caller for an entry which has passed: a handle bound to the current
+     * generation of a pooled entry, or the entry itself.
+     */
+    static Entry handOut(CtEntry entry) {
+        return entry.pooled ? new RecycledEntryHandle(entry) : entry;
+    }
+
+    /**
+     * Return an exited pooled entry to the pool of current thread.
+     */
+    static void release(CtEntry entry) {
+        POOLS.get().giveBack(entry);
+    }
+
+    private CtEntry borrow(ResourceWrapper resourceWrapper, ProcessorSlot<Object> chain, Context context) {
+        CtEntry entry;
+        if (size > 0) {
+            entry = entries[--size];
+            entries[size] = null;
+        } else {
+            entry = new CtEntry();
+        }
+        if (++outstanding > LEAK_THRESHOLD && !leakWarned) {
+            leakWarned = true;
+            RecordLog.warn("[CtEntryPool] Possible entry leak: " + outstanding + " entries on thread "
+                + Thread.currentThread().getName() + " have not exited, latest resource: "
+                + resourceWrapper.getName());
+        }
+        entry.reuse(resourceWrapper, chain, context);
+        return entry;
+    }
+
+    private void giveBack(CtEntry entry) {
+        if (outstanding > 0) {
+            outstanding--;
+        }
+        if (!entry.recyclable || size >= MAX_POOLED) {
+            return;
+        }
+        // Drop references to the finished invocation, but keep the resource for error messages.
+        entry.chain = null;
+        entry.parent = null;
+        entry.child = null;
+        entry.setCurNode(null);
+        entry.setOriginNode(null);
+        entry.setError(null);
+        entries[size++] = entry;
+    }
+
+    private CtEntryPool() {}
+}
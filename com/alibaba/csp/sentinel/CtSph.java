@@ -15,6 +15,7 @@
  */
 package com.alibaba.csp.sentinel;
 
+import com.alibaba.csp.sentinel.config.SentinelConfig;
 import com.alibaba.csp.sentinel.context.Context;
 import com.alibaba.csp.sentinel.context.ContextUtil;
 import com.alibaba.csp.sentinel.context.NullContext;
@@ -41,13 +42,20 @@ public class CtSph implements Sph {
 
     /**
      * Same resource({@link ResourceWrapper#equals(Object)}) will share the same
-     * {@link ProcessorSlotChain}, no matter in which {@link Context}.
+     * {@link ProcessorSlotChain}, no matter in which {@link Context}. The chain is kept by the
+     * {@link RegisteredResource} of the resource, this only counts the created chains.
      */
-    private static volatile Map<ResourceWrapper, ProcessorSlotChain> chainMap
-        = new HashMap<ResourceWrapper, ProcessorSlotChain>();
+    private static volatile int chainCount = 0;
 
     private static final Object LOCK = new Object();
 
+    static {
+        // Otherwise the evictor is started on the first time a limit is reached.
+        if (SentinelConfig.idleEvictMinutes() > 0) {
+            ResourceEvictor.start();
+        }
+    }
+
     private AsyncEntry asyncEntryWithNoChain(ResourceWrapper resourceWrapper, Context context) {
         AsyncEntry entry = new AsyncEntry(resourceWrapper, null, context);
         entry.initAsyncContext();
@@ -56,7 +64,12 @@ public class CtSph implements Sph {
         return entry;
     }
 
-    private AsyncEntry asyncEntryInternal(ResourceWrapper resourceWrapper, int count, Object... args) throws BlockException {
+    /**
+     * @param throwBlock  whether to throw the block exception when blocked, otherwise null is returned
+     * @param reservePass whether rate limiters may reserve a later pass time instead of waiting
+     */
+    private AsyncEntry asyncEntryInternal(ResourceWrapper resourceWrapper, ResourceHandle handle, boolean throwBlock,
+                                          boolean reservePass, int count, Object... args) throws BlockException {
         Context context = ContextUtil.getContext();
         if (context instanceof NullContext) {
             // The {@link NullContext} indicates that the amount of context has exceeded the threshold,
@@ -73,33 +86,39 @@ public class CtSph implements Sph {
             return asyncEntryWithNoChain(resourceWrapper, context);
         }
 
-        ProcessorSlot<Object> chain = lookProcessChain(resourceWrapper);
+        ProcessorSlotChain chain = handle == null ? lookProcessChain(resourceWrapper) : handle.chain();
 
         // Means processor cache size exceeds {@link Constants.MAX_SLOT_CHAIN_SIZE}, so no rule checking will be done.
         if (chain == null) {
             return asyncEntryWithNoChain(resourceWrapper, context);
         }
 
-        AsyncEntry asyncEntry = new AsyncEntry(resourceWrapper, chain, context);
+        AsyncEntry asyncEntry = new AsyncEntry(resourceWrapper, chain, context, reservePass);
+        BlockException blockException;
         try {
-            chain.entry(context, resourceWrapper, null, count, args);
-            // Initiate the async context only when the entry successfully passed the slot chain.
-            asyncEntry.initAsyncContext();
-            // The asynchronous call may take time in background, and current context should not be hanged on it.
-            // So we need to remove current async entry from current context.
-            asyncEntry.cleanCurrentEntryInLocal();
-        } catch (BlockException e1) {
-            // When blocked, the async entry will be exited on current context.
-            // The async context will not be initialized.
-            asyncEntry.exitForContext(context, count, args);
-            throw e1;
+            blockException = chain.tryEntry(context, resourceWrapper, null, count, args);
         } catch (Throwable e1) {
             // This should not happen, unless there are errors existing in Sentinel internal.
             // When this happens, async context is not initialized.
             RecordLog.warn("Sentinel unexpected exception in asyncEntryInternal", e1);
 
             asyncEntry.cleanCurrentEntryInLocal();
+            return asyncEntry;
+        }
+        if (blockException != null) {
+            // When blocked, the async entry will be exited on current context.
+            // The async context will not be initialized.
+            asyncEntry.exitForContext(context, count, args);
+            if (throwBlock) {
+                throw blockException;
+            }
+            return null;
         }
+        // Initiate the async context only when the entry successfully passed the slot chain.
+        asyncEntry.initAsyncContext();
+        // The asynchronous call may take time in background, and current context should not be hanged on it.
+        // So we need to remove current async entry from current context.
+        asyncEntry.cleanCurrentEntryInLocal();
         return asyncEntry;
     }
 
@@ -120,6 +139,70 @@ public class CtSph implements Sph {
      * @throws BlockException if any rule's threshold is exceeded
      */
     public Entry entry(ResourceWrapper resourceWrapper, int count, Object... args) throws BlockException {
+        return entryInternal(resourceWrapper, null, true, count, args);
+    }
+
+    /**
+     * Same as {@link #entry(ResourceWrapper, int, Object...)}, but no exception is thrown when blocked.
+     *
+     * @param resourceWrapper resource name
+     * @param count           tokens needed
+     * @param args            arguments of user method call
+     * @return {@link Entry} represents this call, or null if blocked
+     */
+    public Entry tryEntry(ResourceWrapper resourceWrapper, int count, Object... args) {
+        try {
+            return entryInternal(resourceWrapper, null, false, count, args);
+        } catch (BlockException e) {
+            // Never thrown here.
+            return null;
+        }
+    }
+
+    /**
+     * Do all {@link Rule}s checking about the resource of provided handle, without looking up its slot chain.
+     *
+     * @param handle the pre-resolved resource
+     * @param count  tokens needed
+     * @param args   arguments of user method call
+     * @return {@link Entry} represents this call
+     * @throws BlockException if any rule's threshold is exceeded
+     */
+    Entry entry(ResourceHandle handle, int count, Object... args) throws BlockException {
+        return entryInternal(handle.getResourceWrapper(), handle, true, count, args);
+    }
+
+    Entry tryEntry(ResourceHandle handle, int count, Object... args) {
+        try {
+            return entryInternal(handle.getResourceWrapper(), handle, false, count, args);
+        } catch (BlockException e) {
+            // Never thrown here.
+            return null;
+        }
+    }
+
+    AsyncEntry asyncEntry(ResourceHandle handle, int count, Object... args) throws BlockException {
+        return asyncEntryInternal(handle.getResourceWrapper(), handle, true, false, count, args);
+    }
+
+    AsyncEntry reservingAsyncEntry(ResourceHandle handle, int count, Object... args) throws BlockException {
+        return asyncEntryInternal(handle.getResourceWrapper(), handle, true, true, count, args);
+    }
+
+    AsyncEntry tryAsyncEntry(ResourceHandle handle, int count, Object... args) {
+        try {
+            return asyncEntryInternal(handle.getResourceWrapper(), handle, false, false, count, args);
+        } catch (BlockException e) {
+            // Never thrown here.
+            return null;
+        }
+    }
+
+    /**
+     * @param throwBlock whether to throw the block exception when blocked, otherwise null is returned
+     */
+    private Entry entryInternal(ResourceWrapper resourceWrapper, ResourceHandle handle, boolean throwBlock, int count,
+                                Object... args) throws BlockException {
         //当前线程获取context
         Context context = ContextUtil.getContext();
         /*
@@ -141,38 +224,44 @@ public class CtSph implements Sph {
 
         // Global switch is close, no rule checking will do.
         if (!Constants.ON) {
-            return new CtEntry(resourceWrapper, null, context);
+            return CtEntryPool.handOut(CtEntryPool.acquire(resourceWrapper, null, context));
         }
 
         //获取资源的执行链
-        ProcessorSlot<Object> chain = lookProcessChain(resourceWrapper);
+        ProcessorSlotChain chain = handle == null ? lookProcessChain(resourceWrapper) : handle.chain();
 
         /*
          * Means amount of resources (slot chain) exceeds {@link Constants.MAX_SLOT_CHAIN_SIZE},
          * so no rule checking will be done.
          */
         if (chain == null) {
-            return new CtEntry(resourceWrapper, null, context);
+            return CtEntryPool.handOut(CtEntryPool.acquire(resourceWrapper, null, context));
         }
 
         /*
-         * 创建Entry对象
+         * 创建Entry对象，开启回收时从当前线程的CtEntryPool中获取
          */
-        Entry e = new CtEntry(resourceWrapper, chain, context);
+        CtEntry e = CtEntryPool.acquire(resourceWrapper, chain, context);
+        BlockException blockException;
         try {
             /**
              * 此处将会执行执行链的各种Slot，开始执行资源的统计，限流，熔断等逻辑
-             * 默认情况下会调用{@link DefaultProcessorSlotChain}entry方法
+             * 内置Slot以返回值沿执行链传递阻塞异常，不再抛出和捕获
              */
-            chain.entry(context, resourceWrapper, null, count, args);
-        } catch (BlockException e1) {
-            e.exit(count, args);
-            throw e1;
+            blockException = chain.tryEntry(context, resourceWrapper, null, count, args);
         } catch (Throwable e1) {
             // This should not happen, unless there are errors existing in Sentinel internal.
             RecordLog.info("Sentinel unexpected exception", e1);
+            return CtEntryPool.handOut(e);
         }
-        return e;
+        if (blockException != null) {
+            e.exit(count, args);
+            if (throwBlock) {
+                throw blockException;
+            }
+            return null;
+        }
+        return CtEntryPool.handOut(e);
     }
 
     /**
@@ -184,7 +273,7 @@ public class CtSph implements Sph {
      *
      * <p>
      * Note that total {@link ProcessorSlot} count must not exceed {@link Constants#MAX_SLOT_CHAIN_SIZE},
-     * otherwise null will return.
+     * otherwise idle resources are evicted to make room, and null will return if none can be evicted.
      * </p>
      *
      * @param resourceWrapper target resource
@@ -193,28 +282,35 @@ public class CtSph implements Sph {
     /**
      * 获取资源的执行链
      * 资源的执行链维护了各种Slot，资源的统计，限流，降级等都是这些Slot实现的
-     * 如果chainMap没有当前资源的执行链则新建并返回，否则直接返回资源对应的执行链
+     * 如果ResourceRegistry中的资源还没有执行链则新建并返回，否则直接返回资源对应的执行链
      * @param resourceWrapper
      * @return
      */
-    ProcessorSlot<Object> lookProcessChain(ResourceWrapper resourceWrapper) {
-        ProcessorSlotChain chain = chainMap.get(resourceWrapper);
+    ProcessorSlotChain lookProcessChain(ResourceWrapper resourceWrapper) {
+        RegisteredResource resource = ResourceRegistry.get(resourceWrapper.getName());
+        ProcessorSlotChain chain = resource == null ? null : resource.getChain();
         if (chain == null) {
             synchronized (LOCK) {
-                chain = chainMap.get(resourceWrapper);
+                resource = ResourceRegistry.get(resourceWrapper.getName());
+                chain = resource == null ? null : resource.getChain();
                 if (chain == null) {
-                    // Entry size limit.
-                    if (chainMap.size() >= Constants.MAX_SLOT_CHAIN_SIZE) {
+                    // Entry size limit, make room by evicting idle resources first.
+                    if (chainCount >= Constants.MAX_SLOT_CHAIN_SIZE) {
+                        chainCount -= ResourceEvictor.evictForCapacity();
+                        if (chainCount >= Constants.MAX_SLOT_CHAIN_SIZE) {
+                            return null;
+                        }
+                    }
+                    resource = ResourceRegistry.register(resourceWrapper);
+                    if (resource == null) {
                         return null;
                     }
 
-                    //获取执行链，并更新chainMap集合，添加资源的执行链
+                    //获取执行链，并登记到资源上
                     chain = SlotChainProvider.newSlotChain();
-                    Map<ResourceWrapper, ProcessorSlotChain> newMap = new HashMap<ResourceWrapper, ProcessorSlotChain>(
-                        chainMap.size() + 1);
-                    newMap.putAll(chainMap);
-                    newMap.put(resourceWrapper, chain);
-                    chainMap = newMap;
+                    resource.setChain(chain);
+                    ResourceRegistry.compileChain(resource);
+                    chainCount++;
                 }
             }
         }
@@ -228,7 +324,21 @@ public class CtSph implements Sph {
      * @since 0.2.0
      */
     public static int entrySize() {
-        return chainMap.size();
+        return chainCount;
+    }
+
+    /**
+     * Evict the resources idle for provided minutes, see {@link ResourceEvictor}.
+     *
+     * @param idleMinutes minutes a resource must have been idle for
+     * @return the number of evicted resources
+     */
+    static int evictIdleResources(int idleMinutes) {
+        synchronized (LOCK) {
+            int evicted = ResourceEvictor.evict(idleMinutes, Integer.MAX_VALUE);
+            chainCount -= evicted;
+            return evicted;
+        }
     }
 
     /**
@@ -237,7 +347,15 @@ public class CtSph implements Sph {
      * @since 0.2.0
      */
     static void resetChainMap() {
-        chainMap.clear();
+        synchronized (LOCK) {
+            for (int id = 0; id < ResourceRegistry.size(); id++) {
+                RegisteredResource resource = ResourceRegistry.get(id);
+                if (resource != null) {
+                    resource.setChain(null);
+                }
+            }
+            chainCount = 0;
+        }
     }
 
     /**
@@ -246,9 +364,27 @@ public class CtSph implements Sph {
      * @since 0.2.0
      */
     static Map<ResourceWrapper, ProcessorSlotChain> getChainMap() {
+        Map<ResourceWrapper, ProcessorSlotChain> chainMap = new HashMap<ResourceWrapper, ProcessorSlotChain>();
+        for (int id = 0; id < ResourceRegistry.size(); id++) {
+            RegisteredResource resource = ResourceRegistry.get(id);
+            if (resource != null && resource.getChain() != null) {
+                chainMap.put(resource.getResource(), resource.getChain());
+            }
+        }
         return chainMap;
     }
 
+    /**
+     * Get the wrapper of a resource name, shared by all entries once the resource is registered.
+     */
+    private static StringResourceWrapper stringResource(String name, EntryType type) {
+        RegisteredResource resource = ResourceRegistry.get(name);
+        if (resource == null) {
+            return new StringResourceWrapper(name, type);
+        }
+        return resource.stringWrapper(type);
+    }
+
     /**
      * This class is used for skip context name checking.
      */
@@ -260,7 +396,7 @@ public class CtSph implements Sph {
 
     @Override
     public Entry entry(String name) throws BlockException {
-        StringResourceWrapper resource = new StringResourceWrapper(name, EntryType.OUT);
+        StringResourceWrapper resource = stringResource(name, EntryType.OUT);
         return entry(resource, 1, OBJECTS0);
     }
 
@@ -278,7 +414,7 @@ public class CtSph implements Sph {
 
     @Override
     public Entry entry(String name, EntryType type) throws BlockException {
-        StringResourceWrapper resource = new StringResourceWrapper(name, type);
+        StringResourceWrapper resource = stringResource(name, type);
         return entry(resource, 1, OBJECTS0);
     }
 
@@ -290,7 +426,7 @@ public class CtSph implements Sph {
 
     @Override
     public Entry entry(String name, EntryType type, int count) throws BlockException {
-        StringResourceWrapper resource = new StringResourceWrapper(name, type);
+        StringResourceWrapper resource = stringResource(name, type);
         return entry(resource, count, OBJECTS0);
     }
 
@@ -302,7 +438,7 @@ public class CtSph implements Sph {
 
     @Override
     public Entry entry(String name, int count) throws BlockException {
-        StringResourceWrapper resource = new StringResourceWrapper(name, EntryType.OUT);
+        StringResourceWrapper resource = stringResource(name, EntryType.OUT);
         return entry(resource, count, OBJECTS0);
     }
 
@@ -314,13 +450,46 @@ public class CtSph implements Sph {
 
     @Override
     public Entry entry(String name, EntryType type, int count, Object... args) throws BlockException {
-        StringResourceWrapper resource = new StringResourceWrapper(name, type);
+        StringResourceWrapper resource = stringResource(name, type);
         return entry(resource, count, args);
     }
 
+    @Override
+    public Entry tryEntry(String name, EntryType type, int count, Object... args) {
+        StringResourceWrapper resource = stringResource(name, type);
+        return tryEntry(resource, count, args);
+    }
+
+    @Override
+    public Entry tryEntry(Method method, EntryType type, int count, Object... args) {
+        MethodResourceWrapper resource = new MethodResourceWrapper(method, type);
+        return tryEntry(resource, count, args);
+    }
+
+    @Override
+    public ResourceHandle handle(String name, EntryType type) {
+        return new ResourceHandle(this, stringResource(name, type));
+    }
+
+    @Override
+    public ResourceHandle handle(Method method, EntryType type) {
+        return new ResourceHandle(this, new MethodResourceWrapper(method, type));
+    }
+
     @Override
     public AsyncEntry asyncEntry(String name, EntryType type, int count, Object... args) throws BlockException {
-        StringResourceWrapper resource = new StringResourceWrapper(name, type);
-        return asyncEntryInternal(resource, count, args);
+        StringResourceWrapper resource = stringResource(name, type);
+        return asyncEntryInternal(resource, null, true, false, count, args);
+    }
+
+    @Override
+    public AsyncEntry tryAsyncEntry(String name, EntryType type, int count, Object... args) {
+        StringResourceWrapper resource = stringResource(name, type);
+        try {
+            return asyncEntryInternal(resource, null, false, false, count, args);
+        } catch (BlockException e) {
+            // Never thrown here.
+            return null;
+        }
     }
 }
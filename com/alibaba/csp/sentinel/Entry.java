@@ -15,6 +15,7 @@
  */
 package com.alibaba.csp.sentinel;
 
+import com.alibaba.csp.sentinel.util.RtUtil;
 import com.alibaba.csp.sentinel.util.TimeUtil;
 import com.alibaba.csp.sentinel.context.ContextUtil;
 import com.alibaba.csp.sentinel.node.Node;
@@ -53,6 +54,7 @@ public abstract class Entry {
     private static final Object[] OBJECTS0 = new Object[0];
 
     private long createTime;
+    private long createNanoTime;
     private Node curNode;
     /**
      * {@link Node} of the specific origin, Usually the origin is the Service Consumer.
@@ -64,6 +66,26 @@ public abstract class Entry {
     public Entry(ResourceWrapper resourceWrapper) {
         this.resourceWrapper = resourceWrapper;
         this.createTime = TimeUtil.currentTimeMillis();
+        this.createNanoTime = RtUtil.startNanoTime();
+    }
+
+    /**
+     * Create an entry standing for another one, which overrides the accessors.
+     */
+    Entry() {}
+
+    /**
+     * Reset this entry for another invocation, as if it were just created.
+     *
+     * @param resourceWrapper resource of the new invocation
+     */
+    void reset(ResourceWrapper resourceWrapper) {
+        this.resourceWrapper = resourceWrapper;
+        this.createTime = TimeUtil.currentTimeMillis();
+        this.createNanoTime = RtUtil.startNanoTime();
+        this.curNode = null;
+        this.originNode = null;
+        this.error = null;
     }
 
     public ResourceWrapper getResourceWrapper() {
@@ -108,6 +130,15 @@ public abstract class Entry {
         return createTime;
     }
 
+    /**
+     * Get the high resolution create time, only set if RT is recorded in microseconds.
+     *
+     * @return create time from {@link RtUtil#startNanoTime()}
+     */
+    public long getCreateNanoTime() {
+        return createNanoTime;
+    }
+
     public Node getCurNode() {
         return curNode;
     }
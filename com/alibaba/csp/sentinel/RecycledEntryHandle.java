@@ -0,0 +1,118 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel;
+
+import com.alibaba.csp.sentinel.node.Node;
+
+/**
+ * <p>
+ * What a synchronous entry returns when entries are recycled, see {@link CtEntryPool}: a small handle of a
+ * pooled {@link CtEntry}, bound to the generation of the entry it was given out for.
+ * </p>
+ * <p>
+ * Once the entry has exited and been reused by another invocation, exiting the handle again throws
+ * {@link ErrorEntryFreeException} instead of ending that invocation, and its accessors read nothing and
+ * write nothing.
+ * </p>
+ */
+final class RecycledEntryHandle extends Entry {
+
+    private final CtEntry entry;
+    private final int generation;
+
+    RecycledEntryHandle(CtEntry entry) {
+        this.entry = entry;
+        this.generation = entry.generation;
+        this.resourceWrapper = entry.getResourceWrapper();
+    }
+
+    @Override
+    public void exit(int count, Object... args) throws ErrorEntryFreeException {
+        entry.exit(generation, count, args);
+    }
+
+    @Override
+    protected Entry trueExit(int count, Object... args) throws ErrorEntryFreeException {
+        return entry.exit(generation, count, args);
+    }
+
+    /**
+     * Get the entry if this handle still owns it.
+     */
+    private CtEntry owned() {
+        return entry.generation == generation ? entry : null;
+    }
+
+    @Override
+    public Node getLastNode() {
+        CtEntry owned = owned();
+        return owned == null ? null : owned.getLastNode();
+    }
+
+    @Override
+    public long getCreateTime() {
+        CtEntry owned = owned();
+        return owned == null ? 0 : owned.getCreateTime();
+    }
+
+    @Override
+    public long getCreateNanoTime() {
+        CtEntry owned = owned();
+        return owned == null ? 0 : owned.getCreateNanoTime();
+    }
+
+    @Override
+    public Node getCurNode() {
+        CtEntry owned = owned();
+        return owned == null ? null : owned.getCurNode();
+    }
+
+    @Override
+    public void setCurNode(Node node) {
+        CtEntry owned = owned();
+        if (owned != null) {
+            owned.setCurNode(node);
+        }
+    }
+
+    @Override
+    public Throwable getError() {
+        CtEntry owned = owned();
+        return owned == null ? null : owned.getError();
+    }
+
+    @Override
+    public void setError(Throwable error) {
+        CtEntry owned = owned();
+        if (owned != null) {
+            owned.setError(error);
+        }
+    }
+
+    @Override
+    public Node getOriginNode() {
+        CtEntry owned = owned();
+        return owned == null ? null : owned.getOriginNode();
+    }
+
+    @Override
+    public void setOriginNode(Node originNode) {
+        CtEntry owned = owned();
+        if (owned != null) {
+            owned.setOriginNode(originNode);
+        }
+    }
+}
@@ -0,0 +1,273 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.alibaba.csp.sentinel.concurrent.NamedThreadFactory;
+import com.alibaba.csp.sentinel.config.SentinelConfig;
+import com.alibaba.csp.sentinel.context.ContextUtil;
+import com.alibaba.csp.sentinel.log.RecordLog;
+import com.alibaba.csp.sentinel.node.ClusterNode;
+import com.alibaba.csp.sentinel.node.DefaultNode;
+import com.alibaba.csp.sentinel.node.EntranceNode;
+import com.alibaba.csp.sentinel.node.Node;
+import com.alibaba.csp.sentinel.slotchain.RegisteredResource;
+import com.alibaba.csp.sentinel.slotchain.ResourceRegistry;
+import com.alibaba.csp.sentinel.slots.block.authority.AuthorityRuleManager;
+import com.alibaba.csp.sentinel.slots.block.degrade.DegradeRuleManager;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRule;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRuleManager;
+import com.alibaba.csp.sentinel.util.StringUtil;
+import com.alibaba.csp.sentinel.util.TimeUtil;
+
+/**
+ * <p>
+ * Evicts idle resources, so that the number of slot chains stays bounded while new resources are still
+ * protected once {@link Constants#MAX_SLOT_CHAIN_SIZE} is reached.
+ * </p>
+ * <p>
+ * A resource is idle when its {@link ClusterNode} has neither requests in the last minute nor running
+ * threads. A daemon task checks all resources once a minute and counts for how many minutes in a row each
+ * one has been idle. An idle resource can be evicted if it has no flow, degrade or authority rule and is
+ * not referred by a flow rule of another resource:
+ * </p>
+ * <ul>
+ * <li>when a new resource needs a slot chain and the limit is reached, a batch of them is evicted,
+ * the longest idle first;</li>
+ * <li>once idle for {@link SentinelConfig#idleEvictMinutes()} minutes, if periodic eviction is enabled;</li>
+ * <li>once idle for a minute, when the limit of contexts {@link Constants#MAX_CONTEXT_NAME_SIZE} is reached.</li>
+ * </ul>
+ * <p>
+ * Evicting a resource drops its slot chain and cluster node, and removes its {@link DefaultNode}s from the
+ * invocation tree, moving their children up to their parents. Contexts left without any node are then evicted
+ * by {@link ContextUtil#checkIdleContexts(boolean)}. Statistics of an evicted resource start over when it
+ * is entered again.
+ * </p>
+ * <p>
+ * The task is only started once it has something to do: when periodic eviction is enabled, or on the first
+ * time either limit is reached.
+ * </p>
+ * <p>
+ * Note that eviction is not atomic with entries of the resource. Entries read the slot chain without the lock
+ * of {@link CtSph}, so a thread may have just loaded the chain of a resource which is then evicted. The
+ * statistics of such an in-flight entry land on the dropped {@link ClusterNode} and are lost, and the next
+ * entry creates a new chain. Only resources without a request in the last minute are evicted, which keeps
+ * this window small.
+ * </p>
+ */
+public final class ResourceEvictor {
+
+    private static final int CAPACITY_EVICT_BATCH = Math.max(1, Constants.MAX_SLOT_CHAIN_SIZE / 100);
+    private static final long CAPACITY_RETRY_INTERVAL_MS = 1000;
+
+    private static final Comparator<RegisteredResource> LONGEST_IDLE_FIRST = new Comparator<RegisteredResource>() {
+        @Override
+        public int compare(RegisteredResource o1, RegisteredResource o2) {
+            return o2.getIdleMinutes() - o1.getIdleMinutes();
+        }
+    };
+
+    private static final AtomicBoolean started = new AtomicBoolean(false);
+
+    private static final AtomicLong evictedCount = new AtomicLong();
+
+    /**
+     * Guarded by the lock of {@link CtSph}.
+     */
+    private static long lastCapacityMissTime = 0;
+    private static boolean shouldWarn = true;
+
+    /**
+     * Start the task checking idle resources and contexts once a minute, if not started yet.
+     */
+    public static void start() {
+        if (started.compareAndSet(false, true)) {
+            ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(1,
+                new NamedThreadFactory("sentinel-idle-evict-task", true));
+            scheduler.scheduleAtFixedRate(new IdleCheckTask(), 1, 1, TimeUnit.MINUTES);
+        }
+    }
+
+    /**
+     * Get the number of resources evicted so far.
+     *
+     * @return count of evicted resources
+     */
+    public static long evictedResourceCount() {
+        return evictedCount.get();
+    }
+
+    /**
+     * Evict a batch of idle resources to make room for a new one. Failed attempts are not retried within
+     * a second, so that a full registry costs no more than before. Must be invoked under the lock of
+     * {@link CtSph}.
+     *
+     * @return the number of evicted slot chains
+     */
+    static int evictForCapacity() {
+        long now = TimeUtil.currentTimeMillis();
+        if (now - lastCapacityMissTime < CAPACITY_RETRY_INTERVAL_MS) {
+            return 0;
+        }
+        start();
+        int evicted = evict(0, CAPACITY_EVICT_BATCH);
+        if (evicted == 0) {
+            lastCapacityMissTime = now;
+            if (shouldWarn) {
+                RecordLog.warn("[ResourceEvictor] WARN: Amount of resources exceeds the threshold "
+                    + Constants.MAX_SLOT_CHAIN_SIZE + " and none is idle. Entries of new resources will NOT take effect!");
+                shouldWarn = false;
+            }
+        }
+        return evicted;
+    }
+
+    /**
+     * Evict idle resources without rules. Must be invoked under the lock of {@link CtSph}.
+     *
+     * @param minIdleMinutes minutes a resource must have been idle for
+     * @param limit          the most resources to evict, the longest idle first
+     * @return the number of evicted slot chains
+     */
+    static int evict(int minIdleMinutes, int limit) {
+        List<RegisteredResource> candidates = new ArrayList<RegisteredResource>();
+        Set<String> referredResources = null;
+        for (int id = 0; id < ResourceRegistry.size(); id++) {
+            RegisteredResource resource = ResourceRegistry.get(id);
+            if (resource == null || resource.getChain() == null || resource.getIdleMinutes() < minIdleMinutes
+                || !isEvictable(resource)) {
+                continue;
+            }
+            if (referredResources == null) {
+                referredResources = referredResources();
+            }
+            if (!hasRules(resource.getName(), referredResources)) {
+                candidates.add(resource);
+            }
+        }
+        if (candidates.size() > limit) {
+            Collections.sort(candidates, LONGEST_IDLE_FIRST);
+            candidates = candidates.subList(0, limit);
+        }
+
+        Set<String> names = new HashSet<String>();
+        for (RegisteredResource resource : candidates) {
+            if (ResourceRegistry.unregister(resource)) {
+                names.add(resource.getName());
+            }
+        }
+        if (names.isEmpty()) {
+            return 0;
+        }
+        int removedNodes = removeNodes(Constants.ROOT, names,
+            Collections.newSetFromMap(new IdentityHashMap<DefaultNode, Boolean>()));
+        evictedCount.addAndGet(names.size());
+        RecordLog.info("[ResourceEvictor] Evicted " + names.size() + " idle resources, removed " + removedNodes
+            + " nodes from the invocation tree");
+        return names.size();
+    }
+
+    private static boolean hasTraffic(RegisteredResource resource) {
+        ClusterNode node = resource.getClusterNode();
+        return node != null && (node.totalRequest() > 0 || node.curThreadNum() > 0);
+    }
+
+    private static boolean isEvictable(RegisteredResource resource) {
+        // A chain without cluster node may be in its first entry, so it must have been seen idle once.
+        return !hasTraffic(resource) && (resource.getClusterNode() != null || resource.getIdleMinutes() > 0);
+    }
+
+    private static boolean hasRules(String name, Set<String> referredResources) {
+        return FlowRuleManager.hasConfig(name) || DegradeRuleManager.hasConfig(name)
+            || AuthorityRuleManager.hasConfig(name) || referredResources.contains(name);
+    }
+
+    private static Set<String> referredResources() {
+        Set<String> names = new HashSet<String>();
+        for (FlowRule rule : FlowRuleManager.getRules()) {
+            if (!StringUtil.isEmpty(rule.getRefResource())) {
+                names.add(rule.getRefResource());
+            }
+        }
+        return names;
+    }
+
+    /**
+     * Remove the nodes of provided resources below the parent node, moving their children up. Nodes may
+     * form cycles when resources are entered recursively, so visited ones are skipped.
+     *
+     * @return the number of removed nodes
+     */
+    private static int removeNodes(DefaultNode parent, Set<String> names, Set<DefaultNode> visited) {
+        if (!visited.add(parent)) {
+            return 0;
+        }
+        int removed = 0;
+        for (Node child : parent.getChildList()) {
+            DefaultNode node = (DefaultNode)child;
+            removed += removeNodes(node, names, visited);
+            if (!(node instanceof EntranceNode) && names.contains(node.getId().getName())) {
+                parent.removeChild(node);
+                removed++;
+                for (Node grandChild : node.getChildList()) {
+                    if (grandChild != parent) {
+                        parent.addChild(grandChild);
+                    }
+                }
+            }
+        }
+        return removed;
+    }
+
+    private static class IdleCheckTask implements Runnable {
+
+        @Override
+        public void run() {
+            try {
+                for (int id = 0; id < ResourceRegistry.size(); id++) {
+                    RegisteredResource resource = ResourceRegistry.get(id);
+                    if (resource != null && resource.getChain() != null) {
+                        resource.setIdleMinutes(hasTraffic(resource) ? 0 : resource.getIdleMinutes() + 1);
+                    }
+                }
+                int idleMinutes = SentinelConfig.idleEvictMinutes();
+                if (idleMinutes > 0) {
+                    CtSph.evictIdleResources(idleMinutes);
+                } else if (ContextUtil.contextSize() > Constants.MAX_CONTEXT_NAME_SIZE) {
+                    // Contexts can only be evicted once their resources are, so make room for them as well.
+                    CtSph.evictIdleResources(1);
+                }
+                ContextUtil.checkIdleContexts(idleMinutes > 0);
+            } catch (Throwable e) {
+                RecordLog.warn("[ResourceEvictor] Failed to check idle resources", e);
+            }
+        }
+    }
+
+    private ResourceEvictor() {}
+}
@@ -0,0 +1,213 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel;
+
+import com.alibaba.csp.sentinel.node.ClusterNode;
+import com.alibaba.csp.sentinel.slotchain.ProcessorSlotChain;
+import com.alibaba.csp.sentinel.slotchain.RegisteredResource;
+import com.alibaba.csp.sentinel.slotchain.ResourceRegistry;
+import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
+import com.alibaba.csp.sentinel.slots.block.BlockException;
+
+/**
+ * <p>
+ * A protected resource resolved once and reused for every entry of it. A handle holds the resource wrapper,
+ * the {@link RegisteredResource} and through it the {@link ProcessorSlotChain} and {@link ClusterNode} of the
+ * resource, so entering it needs no wrapper allocation, method name resolution or map lookup. The resource is
+ * only registered on the first entry, so that a handle of a resource which is never entered holds no registry
+ * id. The
+ * {@link com.alibaba.csp.sentinel.node.DefaultNode} of the current context is still selected by the slot chain,
+ * as it depends on the context of each call.
+ * </p>
+ *
+ * <p>
+ * Handles are thread-safe and meant to be kept in a static field of the call site:
+ * </p>
+ *
+ * <pre>
+ *  private static final ResourceHandle DISPATCH = SphU.handle("dispatch", EntryType.IN);
+ *
+ *  public void dispatch() {
+ *     Entry entry = null;
+ *     try {
+ *        entry = DISPATCH.entry();
+ *        // resource that need protection
+ *     } catch (BlockException blockException) {
+ *         // when goes there, it is blocked
+ *     } finally {
+ *         if (entry != null) {
+ *             entry.exit();
+ *         }
+ *     }
+ *  }
+ * </pre>
+ *
+ * @see SphU#handle(String, EntryType)
+ */
+public final class ResourceHandle {
+
+    private static final Object[] OBJECTS0 = new Object[0];
+
+    private final CtSph sph;
+    private final ResourceWrapper resourceWrapper;
+    /**
+     * Null until the first entry, or while the registry is full, then the slot chain is looked up on every
+     * entry. Resolved again once the resource has been evicted.
+     */
+    private volatile RegisteredResource resource;
+
+    ResourceHandle(CtSph sph, ResourceWrapper resourceWrapper) {
+        this.sph = sph;
+        this.resourceWrapper = resourceWrapper;
+    }
+
+    /**
+     * Checking all rules about the resource.
+     *
+     * @return {@link Entry} represents this call
+     * @throws BlockException if the block criteria is met, eg. when any rule's threshold is exceeded.
+     */
+    public Entry entry() throws BlockException {
+        return sph.entry(this, 1, OBJECTS0);
+    }
+
+    /**
+     * Checking all rules about the resource.
+     *
+     * @param count tokens required
+     * @return {@link Entry} represents this call
+     * @throws BlockException if the block criteria is met, eg. when any rule's threshold is exceeded.
+     */
+    public Entry entry(int count) throws BlockException {
+        return sph.entry(this, count, OBJECTS0);
+    }
+
+    /**
+     * Checking all rules about the resource.
+     *
+     * @param count tokens required
+     * @param args  extra parameters.
+     * @return {@link Entry} represents this call
+     * @throws BlockException if the block criteria is met, eg. when any rule's threshold is exceeded.
+     */
+    public Entry entry(int count, Object... args) throws BlockException {
+        return sph.entry(this, count, args);
+    }
+
+    /**
+     * Checking all rules about the resource as an asynchronous invocation.
+     *
+     * @param count tokens required
+     * @param args  extra parameters
+     * @return created asynchronous entry
+     * @throws BlockException if the block criteria is met, eg. when any rule's threshold is exceeded
+     */
+    public AsyncEntry asyncEntry(int count, Object... args) throws BlockException {
+        return sph.asyncEntry(this, count, args);
+    }
+
+    /**
+     * Same as {@link #asyncEntry(int, Object...)}, except that a rate limiter of the resource does not make
+     * current thread wait for the turn of the invocation. It reserves a later pass time on the entry instead,
+     * and the caller must not start the invocation before it, see {@link AsyncEntry#getPassWaitNanos()} and
+     * {@link com.alibaba.csp.sentinel.concurrent.AsyncEntryCompletion#runWhenPassed(Runnable)}.
+     *
+     * @param count tokens required
+     * @param args  extra parameters
+     * @return created asynchronous entry
+     * @throws BlockException if the block criteria is met, eg. when any rule's threshold is exceeded
+     */
+    public AsyncEntry reservingAsyncEntry(int count, Object... args) throws BlockException {
+        return sph.reservingAsyncEntry(this, count, args);
+    }
+
+    /**
+     * Checking all rules about the resource, without throwing when blocked.
+     *
+     * @return {@link Entry} represents this call, or null if blocked
+     */
+    public Entry tryEntry() {
+        return sph.tryEntry(this, 1, OBJECTS0);
+    }
+
+    /**
+     * Checking all rules about the resource, without throwing when blocked.
+     *
+     * @param count tokens required
+     * @param args  extra parameters.
+     * @return {@link Entry} represents this call, or null if blocked
+     */
+    public Entry tryEntry(int count, Object... args) {
+        return sph.tryEntry(this, count, args);
+    }
+
+    /**
+     * Checking all rules about the resource as an asynchronous invocation, without throwing when blocked.
+     *
+     * @param count tokens required
+     * @param args  extra parameters
+     * @return created asynchronous entry, or null if blocked
+     */
+    public AsyncEntry tryAsyncEntry(int count, Object... args) {
+        return sph.tryAsyncEntry(this, count, args);
+    }
+
+    public ResourceWrapper getResourceWrapper() {
+        return resourceWrapper;
+    }
+
+    public String getName() {
+        return resourceWrapper.getName();
+    }
+
+    public EntryType getType() {
+        return resourceWrapper.getType();
+    }
+
+    /**
+     * Get the {@link ClusterNode} of the resource.
+     *
+     * @return the cluster node, or null if the resource has not been entered yet
+     */
+    public ClusterNode getClusterNode() {
+        ClusterNode node = resource == null ? null : resource.getClusterNode();
+        if (node != null) {
+            return node;
+        }
+        RegisteredResource current = ResourceRegistry.get(getName());
+        return current == null ? null : current.getClusterNode();
+    }
+
+    ProcessorSlotChain chain() {
+        ProcessorSlotChain chain = resource == null ? null : resource.getChain();
+        if (chain != null) {
+            return chain;
+        }
+        chain = sph.lookProcessChain(resourceWrapper);
+        RegisteredResource current = ResourceRegistry.get(getName());
+        if (current != null) {
+            resource = current;
+        }
+        return chain;
+    }
+
+    @Override
+    public String toString() {
+        return "ResourceHandle{" +
+            "resource=" + resourceWrapper +
+            '}';
+    }
+}
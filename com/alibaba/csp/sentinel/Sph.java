@@ -155,4 +155,62 @@ public interface Sph {
      * @since 0.2.0
      */
     AsyncEntry asyncEntry(String name, EntryType type, int count, Object... args) throws BlockException;
+
+    /**
+     * Same as {@link #entry(String, EntryType, int, Object...)}, but null is returned instead of
+     * throwing when blocked. The block exception is still created, for the entry and the block callbacks.
+     * The built-in slots hand it back through the slot chain instead of throwing it.
+     *
+     * @param name  the unique name for the protected resource
+     * @param type  the resource is an inbound or an outbound method. This is used
+     *              to mark whether it can be blocked when the system is unstable
+     * @param count the count that the resource requires
+     * @param args  the parameters of the method.
+     * @return entry get, or null if blocked
+     */
+    Entry tryEntry(String name, EntryType type, int count, Object... args);
+
+    /**
+     * Same as {@link #entry(Method, EntryType, int, Object...)}, but no exception is thrown when blocked.
+     *
+     * @param method the protected method
+     * @param type   the resource is an inbound or an outbound method. This is used
+     *               to mark whether it can be blocked when the system is unstable
+     * @param count  the count that the resource requires
+     * @param args   the parameters of the method.
+     * @return entry get, or null if blocked
+     */
+    Entry tryEntry(Method method, EntryType type, int count, Object... args);
+
+    /**
+     * Same as {@link #asyncEntry(String, EntryType, int, Object...)}, but no exception is thrown when blocked.
+     *
+     * @param name  the unique name for the protected resource
+     * @param type  the resource is an inbound or an outbound method. This is used
+     *              to mark whether it can be blocked when the system is unstable
+     * @param count the count that the resource requires
+     * @param args  the parameters of the method.
+     * @return created asynchronous entry, or null if blocked
+     */
+    AsyncEntry tryAsyncEntry(String name, EntryType type, int count, Object... args);
+
+    /**
+     * Resolve a resource once, so that entries of it can skip all lookups, see {@link ResourceHandle}.
+     *
+     * @param name the unique name for the protected resource
+     * @param type the resource is an inbound or an outbound method. This is used
+     *             to mark whether it can be blocked when the system is unstable
+     * @return the handle of the resource
+     */
+    ResourceHandle handle(String name, EntryType type);
+
+    /**
+     * Resolve a protected method once, so that entries of it can skip all lookups, see {@link ResourceHandle}.
+     *
+     * @param method the protected method
+     * @param type   the resource is an inbound or an outbound method. This is used
+     *               to mark whether it can be blocked when the system is unstable
+     * @return the handle of the resource
+     */
+    ResourceHandle handle(Method method, EntryType type);
 }
@@ -20,7 +20,6 @@ import java.util.List;
 
 import com.alibaba.csp.sentinel.log.RecordLog;
 import com.alibaba.csp.sentinel.context.ContextUtil;
-import com.alibaba.csp.sentinel.slots.block.BlockException;
 import com.alibaba.csp.sentinel.slots.block.Rule;
 import com.alibaba.csp.sentinel.slots.block.degrade.DegradeRuleManager;
 import com.alibaba.csp.sentinel.slots.block.flow.FlowRuleManager;
@@ -178,14 +177,11 @@ public class SphO {
      */
     public static boolean entry(String name, EntryType type, int count, Object... args) {
         try {
-            Env.sph.entry(name, type, count, args);
-        } catch (BlockException e) {
-            return false;
+            return Env.sph.tryEntry(name, type, count, args) != null;
         } catch (Throwable e) {
             RecordLog.info("[Sentinel] Fatal error", e);
             return true;
         }
-        return true;
     }
 
     /**
@@ -201,14 +197,38 @@ public class SphO {
      */
     public static boolean entry(Method method, EntryType type, int count, Object... args) {
         try {
-            Env.sph.entry(method, type, count, args);
-        } catch (BlockException e) {
-            return false;
+            return Env.sph.tryEntry(method, type, count, args) != null;
+        } catch (Throwable e) {
+            RecordLog.info("[Sentinel] Fatal error", e);
+            return true;
+        }
+    }
+
+    /**
+     * Checking all {@link Rule}s about the resource of a pre-resolved handle, see {@link ResourceHandle}.
+     *
+     * @param handle the handle of the protected resource
+     * @return true if no rule's threshold is exceeded, otherwise return false.
+     */
+    public static boolean entry(ResourceHandle handle) {
+        return entry(handle, 1, OBJECTS0);
+    }
+
+    /**
+     * Checking all {@link Rule}s about the resource of a pre-resolved handle, see {@link ResourceHandle}.
+     *
+     * @param handle the handle of the protected resource
+     * @param count  tokens required
+     * @param args   extra parameters.
+     * @return true if no rule's threshold is exceeded, otherwise return false.
+     */
+    public static boolean entry(ResourceHandle handle, int count, Object... args) {
+        try {
+            return handle.tryEntry(count, args) != null;
         } catch (Throwable e) {
             RecordLog.info("[Sentinel] Fatal error", e);
             return true;
         }
-        return true;
     }
 
     public static void exit(int count, Object... args) {
@@ -242,4 +242,120 @@ public class SphU {
     public static AsyncEntry asyncEntry(String name, EntryType type, int count, Object... args) throws BlockException {
         return Env.sph.asyncEntry(name, type, count, args);
     }
+
+    /**
+     * Checking all {@link Rule}s about the resource, like {@link #entry(String)}, but returning null instead
+     * of throwing when blocked. The built-in slots hand the block exception back through the slot chain
+     * without throwing it, which keeps rejections cheap under overload.
+     *
+     * @param name the unique name of the protected resource
+     * @return entry get, or null if blocked
+     */
+    public static Entry tryEntry(String name) {
+        return Env.sph.tryEntry(name, EntryType.OUT, 1, OBJECTS0);
+    }
+
+    /**
+     * Checking all {@link Rule}s about the resource, returning null instead of throwing when blocked.
+     *
+     * @param name the unique name for the protected resource
+     * @param type the resource is an inbound or an outbound method. This is used
+     *             to mark whether it can be blocked when the system is unstable,
+     *             only inbound traffic could be blocked by {@link SystemRule}
+     * @return entry get, or null if blocked
+     */
+    public static Entry tryEntry(String name, EntryType type) {
+        return Env.sph.tryEntry(name, type, 1, OBJECTS0);
+    }
+
+    /**
+     * Checking all {@link Rule}s about the resource, returning null instead of throwing when blocked.
+     *
+     * @param name  the unique name for the protected resource
+     * @param type  the resource is an inbound or an outbound method. This is used
+     *              to mark whether it can be blocked when the system is unstable,
+     *              only inbound traffic could be blocked by {@link SystemRule}
+     * @param count tokens required
+     * @param args  extra parameters.
+     * @return entry get, or null if blocked
+     */
+    public static Entry tryEntry(String name, EntryType type, int count, Object... args) {
+        return Env.sph.tryEntry(name, type, count, args);
+    }
+
+    /**
+     * Checking all {@link Rule}s about the protected method, returning null instead of throwing when blocked.
+     *
+     * @param method the protected method
+     * @param type   the resource is an inbound or an outbound method. This is used
+     *               to mark whether it can be blocked when the system is unstable,
+     *               only inbound traffic could be blocked by {@link SystemRule}
+     * @param count  tokens required
+     * @param args   the parameters of the method.
+     * @return entry get, or null if blocked
+     */
+    public static Entry tryEntry(Method method, EntryType type, int count, Object... args) {
+        return Env.sph.tryEntry(method, type, count, args);
+    }
+
+    /**
+     * Checking all rules about the asynchronous resource, returning null instead of throwing when blocked.
+     *
+     * @param name the unique name of the protected resource
+     * @return created asynchronous entry, or null if blocked
+     */
+    public static AsyncEntry tryAsyncEntry(String name) {
+        return Env.sph.tryAsyncEntry(name, EntryType.OUT, 1, OBJECTS0);
+    }
+
+    /**
+     * Checking all {@link Rule}s about the asynchronous resource, returning null instead of throwing when blocked.
+     *
+     * @param name  the unique name for the protected resource
+     * @param type  the resource is an inbound or an outbound method. This is used
+     *              to mark whether it can be blocked when the system is unstable,
+     *              only inbound traffic could be blocked by {@link SystemRule}
+     * @param count tokens required
+     * @param args  extra parameters
+     * @return created asynchronous entry, or null if blocked
+     */
+    public static AsyncEntry tryAsyncEntry(String name, EntryType type, int count, Object... args) {
+        return Env.sph.tryAsyncEntry(name, type, count, args);
+    }
+
+    /**
+     * Resolve the resource once for allocation-free entries, see {@link ResourceHandle}.
+     *
+     * @param name the unique name of the protected resource
+     * @return the handle of the resource
+     */
+    public static ResourceHandle handle(String name) {
+        return Env.sph.handle(name, EntryType.OUT);
+    }
+
+    /**
+     * Resolve the resource once for allocation-free entries, see {@link ResourceHandle}.
+     *
+     * @param name the unique name for the protected resource
+     * @param type the resource is an inbound or an outbound method. This is used
+     *             to mark whether it can be blocked when the system is unstable,
+     *             only inbound traffic could be blocked by {@link SystemRule}
+     * @return the handle of the resource
+     */
+    public static ResourceHandle handle(String name, EntryType type) {
+        return Env.sph.handle(name, type);
+    }
+
+    /**
+     * Resolve the protected method once for allocation-free entries, see {@link ResourceHandle}.
+     *
+     * @param method the protected method
+     * @param type   the resource is an inbound or an outbound method. This is used
+     *               to mark whether it can be blocked when the system is unstable,
+     *               only inbound traffic could be blocked by {@link SystemRule}
+     * @return the handle of the resource
+     */
+    public static ResourceHandle handle(Method method, EntryType type) {
+        return Env.sph.handle(method, type);
+    }
 }
@@ -0,0 +1,38 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.concurrent;
+
+/**
+ * Callback of an asynchronous invocation, see {@link AsyncEntryCompletion#wrap(AsyncCallback)}.
+ *
+ * @param <T> type of the result
+ */
+public interface AsyncCallback<T> {
+
+    /**
+     * Invoked when the invocation succeeds.
+     *
+     * @param result the result
+     */
+    void onSuccess(T result);
+
+    /**
+     * Invoked when the invocation fails.
+     *
+     * @param t the error
+     */
+    void onFailure(Throwable t);
+}
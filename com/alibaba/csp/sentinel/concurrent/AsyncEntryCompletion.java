@@ -0,0 +1,318 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.concurrent;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import com.alibaba.csp.sentinel.AsyncEntry;
+import com.alibaba.csp.sentinel.context.Context;
+import com.alibaba.csp.sentinel.context.ContextUtil;
+import com.alibaba.csp.sentinel.log.RecordLog;
+import com.alibaba.csp.sentinel.node.ClusterNode;
+import com.alibaba.csp.sentinel.node.DefaultNode;
+import com.alibaba.csp.sentinel.slots.block.BlockException;
+
+/**
+ * <p>
+ * Completes an {@link AsyncEntry} exactly once, when the asynchronous invocation it guards completes, and
+ * carries its async context to the continuations of the invocation.
+ * </p>
+ * <p>
+ * On completion the entry exits, which records the RT, and a failure is traced to the resource as an
+ * exception. Completing again does nothing, so the entry can be completed both from a callback and from a
+ * timeout or cancellation path without being exited twice.
+ * </p>
+ * <pre>
+ * AsyncEntry entry = SphU.asyncEntry("remoteCall");
+ * final AsyncEntryCompletion completion = new AsyncEntryCompletion(entry);
+ * client.call(request, completion.wrap(new AsyncCallback&lt;Response&gt;() {...}));
+ * </pre>
+ * <p>
+ * With a {@code CompletableFuture}, calling {@link #complete(Throwable)} from {@code whenComplete} is enough.
+ * </p>
+ */
+public class AsyncEntryCompletion {
+
+    private static final Object[] OBJECTS0 = new Object[0];
+
+    private final AsyncEntry entry;
+    private final int count;
+    private final Object[] args;
+
+    private final AtomicBoolean completed = new AtomicBoolean(false);
+
+    public AsyncEntryCompletion(AsyncEntry entry) {
+        this(entry, 1, OBJECTS0);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param entry the entry to complete
+     * @param count tokens acquired by the entry
+     * @param args  parameters the entry was created with
+     */
+    public AsyncEntryCompletion(AsyncEntry entry, int count, Object... args) {
+        this.entry = entry;
+        this.count = count;
+        this.args = args;
+    }
+
+    public AsyncEntry getEntry() {
+        return entry;
+    }
+
+    public boolean isCompleted() {
+        return completed.get();
+    }
+
+    /**
+     * Complete the entry as a success.
+     *
+     * @return true if this call completed the entry, false if it was already completed
+     */
+    public boolean complete() {
+        return complete(null);
+    }
+
+    /**
+     * Complete the entry, tracing provided error if any.
+     *
+     * @param error the error of the invocation, or null if it succeeded
+     * @return true if this call completed the entry, false if it was already completed
+     */
+    public boolean complete(Throwable error) {
+        if (!completed.compareAndSet(false, true)) {
+            return false;
+        }
+        if (error != null) {
+            trace(error);
+        }
+        try {
+            entry.exit(count, args);
+        } catch (Throwable e) {
+            RecordLog.warn("[AsyncEntryCompletion] Failed to exit async entry: "
+                + entry.getResourceWrapper().getName(), e);
+        }
+        return true;
+    }
+
+    /**
+     * Wrap a callback, so that it runs on the async context and completes the entry afterwards.
+     *
+     * @param callback the callback of the invocation
+     * @param <T>      type of the result
+     * @return the wrapped callback
+     */
+    public <T> AsyncCallback<T> wrap(final AsyncCallback<T> callback) {
+        return new AsyncCallback<T>() {
+            @Override
+            public void onSuccess(final T result) {
+                Throwable error = null;
+                try {
+                    runOnAsyncContext(new Runnable() {
+                        @Override
+                        public void run() {
+                            callback.onSuccess(result);
+                        }
+                    });
+                } catch (RuntimeException e) {
+                    error = e;
+                    throw e;
+                } catch (Error e) {
+                    error = e;
+                    throw e;
+                } finally {
+                    complete(error);
+                }
+            }
+
+            @Override
+            public void onFailure(final Throwable t) {
+                try {
+                    runOnAsyncContext(new Runnable() {
+                        @Override
+                        public void run() {
+                            callback.onFailure(t);
+                        }
+                    });
+                } finally {
+                    complete(t);
+                }
+            }
+        };
+    }
+
+    /**
+     * Wrap a continuation of the invocation, so that it runs on the async context in whatever thread.
+     * The entry is not completed by it.
+     *
+     * @param task the continuation
+     * @return the wrapped task
+     */
+    public Runnable wrap(final Runnable task) {
+        return new Runnable() {
+            @Override
+            public void run() {
+                runOnAsyncContext(task);
+            }
+        };
+    }
+
+    /**
+     * Wrap a continuation of the invocation, so that it runs on the async context in whatever thread.
+     * The entry is not completed by it.
+     *
+     * @param task the continuation
+     * @param <V>  type of the result
+     * @return the wrapped task
+     */
+    public <V> Callable<V> wrap(final Callable<V> task) {
+        return new Callable<V>() {
+            @Override
+            public V call() throws Exception {
+                Context asyncContext = entry.getAsyncContext();
+                if (asyncContext == null) {
+                    return task.call();
+                }
+                return ContextUtil.runOnContext(asyncContext, task);
+            }
+        };
+    }
+
+    /**
+     * Wrap an executor, so that all tasks submitted through it run on the async context.
+     *
+     * @param executor the executor
+     * @return the wrapped executor
+     */
+    public Executor wrap(final Executor executor) {
+        return new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                executor.execute(wrap(command));
+            }
+        };
+    }
+
+    /**
+     * Start the invocation on the async context once the pass time reserved for the entry by a rate limiter
+     * has come, see {@link AsyncEntry#getPassWaitNanos()}, without blocking any thread meanwhile. Pass times are
+     * only reserved for entries created by {@link com.alibaba.csp.sentinel.ResourceHandle#reservingAsyncEntry(int,
+     * Object...)}, other entries have already waited for their turn. The task runs
+     * at once in current thread if there is nothing to wait for, otherwise in the thread of a shared timer, so
+     * it should only issue the asynchronous call. If it throws in the timer thread, the entry is completed with
+     * the error, otherwise the error is thrown to the caller.
+     *
+     * @param task starts the invocation
+     */
+    public void runWhenPassed(Runnable task) {
+        runWhenPassed(task, null);
+    }
+
+    /**
+     * Same as {@link #runWhenPassed(Runnable)}, but the task is handed to provided executor when the pass time
+     * has come. If the executor rejects it in the timer thread, the entry is completed with the error.
+     *
+     * @param task     starts the invocation
+     * @param executor runs the task, or null to run it in place
+     */
+    public void runWhenPassed(Runnable task, final Executor executor) {
+        final Runnable start = wrap(task);
+        long waitNanos = entry.getPassWaitNanos();
+        if (waitNanos <= 0) {
+            if (executor == null) {
+                start.run();
+            } else {
+                executor.execute(start);
+            }
+            return;
+        }
+        PassTimer.schedule(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    if (executor == null) {
+                        start.run();
+                    } else {
+                        executor.execute(start);
+                    }
+                } catch (RuntimeException e) {
+                    complete(e);
+                    throw e;
+                } catch (Error e) {
+                    complete(e);
+                    throw e;
+                }
+            }
+        }, waitNanos);
+    }
+
+    /**
+     * Create a future task running provided callable on the async context. The entry is completed when the task
+     * is done, including when it is cancelled.
+     *
+     * @param callable the invocation
+     * @param <V>      type of the result
+     * @return the future task, to be run by an executor
+     */
+    public <V> FutureTask<V> futureTask(Callable<V> callable) {
+        return new FutureTask<V>(wrap(callable)) {
+            @Override
+            protected void done() {
+                Throwable error = null;
+                if (!isCancelled()) {
+                    try {
+                        get();
+                    } catch (ExecutionException e) {
+                        error = e.getCause();
+                    } catch (Throwable e) {
+                        error = e;
+                    }
+                }
+                complete(error);
+            }
+        };
+    }
+
+    private void trace(Throwable error) {
+        if (error instanceof BlockException) {
+            return;
+        }
+        DefaultNode node = (DefaultNode)entry.getCurNode();
+        // The cluster node is null when no rule checking has been done.
+        ClusterNode clusterNode = node == null ? null : node.getClusterNode();
+        if (clusterNode != null) {
+            clusterNode.trace(error, count);
+        }
+    }
+
+    /**
+     * Run provided task on the async context, or on current context if the entry has already exited.
+     */
+    private void runOnAsyncContext(Runnable task) {
+        Context asyncContext = entry.getAsyncContext();
+        if (asyncContext == null) {
+            task.run();
+        } else {
+            ContextUtil.runOnContext(asyncContext, task);
+        }
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.concurrent;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.RejectedExecutionException;
+
+import com.alibaba.csp.sentinel.Entry;
+import com.alibaba.csp.sentinel.ResourceHandle;
+import com.alibaba.csp.sentinel.Tracer;
+import com.alibaba.csp.sentinel.context.Context;
+import com.alibaba.csp.sentinel.context.ContextUtil;
+import com.alibaba.csp.sentinel.context.NullContext;
+import com.alibaba.csp.sentinel.node.DefaultNode;
+import com.alibaba.csp.sentinel.slots.block.BlockException;
+
+/**
+ * <p>
+ * A task running on a fork of the context it was created in, see {@link SentinelExecutors}.
+ * </p>
+ * <p>
+ * If the executor is protected, the queue entry acquired on submission is exited when the task starts,
+ * and the task then runs inside an entry of the execution resource, whose node is nested under the node of
+ * the queue entry. The exited queue entry itself is never part of the task's context. Whatever
+ * the task leaves in the context storage of the worker thread is dropped when it ends.
+ * </p>
+ *
+ * @param <V> type of the result
+ */
+final class ContextTask<V> implements Runnable, Callable<V> {
+
+    private final Callable<V> callable;
+    private final Runnable runnable;
+    /**
+     * Owned by this task, so that concurrent tasks never share a context. Null if the task was created
+     * out of any context.
+     */
+    private final Context context;
+    private final AsyncEntryCompletion queueCompletion;
+    private final ResourceHandle executionHandle;
+
+    ContextTask(Callable<V> callable, Runnable runnable, Context parent, AsyncEntryCompletion queueCompletion,
+                ResourceHandle executionHandle) {
+        this.callable = callable;
+        this.runnable = runnable;
+        this.context = fork(parent, queueCompletion);
+        this.queueCompletion = queueCompletion;
+        this.executionHandle = executionHandle;
+    }
+
+    @Override
+    public V call() throws Exception {
+        leaveQueue();
+        return ContextUtil.runOnContext(context, new Callable<V>() {
+            @Override
+            public V call() throws Exception {
+                return execute();
+            }
+        });
+    }
+
+    @Override
+    public void run() {
+        try {
+            call();
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            // Only a callable may throw a checked exception, and it runs through call().
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Release the queue entry of a task which will never run, e.g. when cancelled or rejected.
+     *
+     * @param error the reason, or null if cancelled
+     */
+    void abandon(Throwable error) {
+        if (queueCompletion != null) {
+            queueCompletion.complete(error);
+        }
+    }
+
+    /**
+     * Get how long the task should still wait before it joins the pool, as reserved by the rate limiters
+     * of the queue resource.
+     *
+     * @return wait time in nanoseconds
+     */
+    long passWaitNanos() {
+        return queueCompletion == null ? 0 : queueCompletion.getEntry().getPassWaitNanos();
+    }
+
+    private void leaveQueue() {
+        if (queueCompletion != null) {
+            queueCompletion.complete();
+        }
+    }
+
+    private V execute() throws Exception {
+        Entry entry = null;
+        if (executionHandle != null) {
+            try {
+                entry = executionHandle.entry();
+            } catch (BlockException e) {
+                throw new RejectedExecutionException("Task blocked by Sentinel: " + executionHandle.getName(), e);
+            }
+        }
+        try {
+            if (callable != null) {
+                return callable.call();
+            }
+            runnable.run();
+            return null;
+        } catch (Exception e) {
+            trace(entry, e);
+            throw e;
+        } catch (Error e) {
+            trace(entry, e);
+            throw e;
+        } finally {
+            if (entry != null) {
+                entry.exit();
+            }
+        }
+    }
+
+    private static void trace(Entry entry, Throwable e) {
+        if (entry != null) {
+            Tracer.trace(e);
+        }
+    }
+
+    private static Context fork(Context parent, AsyncEntryCompletion queueCompletion) {
+        if (parent == null || parent instanceof NullContext) {
+            return parent;
+        }
+        // Entries of the task hang under the node of the queue entry, without the entry being their parent.
+        DefaultNode root = parent.getEntranceNode();
+        if (queueCompletion != null && queueCompletion.getEntry().getCurNode() instanceof DefaultNode) {
+            root = (DefaultNode)queueCompletion.getEntry().getCurNode();
+        }
+        return Context.newAsyncContext(root, parent.getName()).setOrigin(parent.getOrigin());
+    }
+}
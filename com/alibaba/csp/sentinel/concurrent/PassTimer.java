@@ -0,0 +1,54 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.concurrent;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import com.alibaba.csp.sentinel.log.RecordLog;
+
+/**
+ * A timer shared by the asynchronous invocations which wait for the pass time reserved by a rate limiter,
+ * see {@link com.alibaba.csp.sentinel.AsyncEntry#getPassWaitNanos()}. Its tasks only start an invocation or
+ * hand it to an executor, so a single thread serves them all.
+ */
+final class PassTimer {
+
+    private static final ScheduledExecutorService timer = Executors.newScheduledThreadPool(1,
+        new NamedThreadFactory("sentinel-pass-timer-task", true));
+
+    /**
+     * Run a task after provided delay. Errors of the task are logged, so it should handle its own.
+     *
+     * @param task       the task
+     * @param delayNanos delay in nanoseconds
+     */
+    static void schedule(final Runnable task, long delayNanos) {
+        timer.schedule(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    task.run();
+                } catch (Throwable e) {
+                    RecordLog.warn("[PassTimer] Failed to run postponed task", e);
+                }
+            }
+        }, delayNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private PassTimer() {}
+}
@@ -0,0 +1,180 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.concurrent;
+
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RunnableFuture;
+import java.util.concurrent.TimeUnit;
+
+import com.alibaba.csp.sentinel.ResourceHandle;
+import com.alibaba.csp.sentinel.context.Context;
+import com.alibaba.csp.sentinel.context.ContextUtil;
+import com.alibaba.csp.sentinel.slots.block.BlockException;
+
+/**
+ * An {@link ExecutorService} running every task on the context it was submitted in, and guarding the
+ * tasks with the resources of the executor if any, see {@link SentinelExecutors}.
+ */
+class SentinelExecutorService extends AbstractExecutorService {
+
+    private final ExecutorService delegate;
+    /**
+     * Null if the executor is not protected.
+     */
+    private final ResourceHandle queueHandle;
+    private final ResourceHandle executionHandle;
+
+    SentinelExecutorService(ExecutorService delegate, ResourceHandle queueHandle, ResourceHandle executionHandle) {
+        this.delegate = delegate;
+        this.queueHandle = queueHandle;
+        this.executionHandle = executionHandle;
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        if (command instanceof TaskFuture) {
+            dispatch(command, ((TaskFuture<?>)command).task);
+        } else {
+            ContextTask<Object> task = newTask(null, command, true);
+            dispatch(task, task);
+        }
+    }
+
+    @Override
+    protected <T> RunnableFuture<T> newTaskFor(Callable<T> callable) {
+        return new TaskFuture<T>(newTask(callable, null, true));
+    }
+
+    @Override
+    protected <T> RunnableFuture<T> newTaskFor(Runnable runnable, T value) {
+        return newTaskFor(Executors.callable(runnable, value));
+    }
+
+    @Override
+    public void shutdown() {
+        delegate.shutdown();
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        List<Runnable> pending = delegate.shutdownNow();
+        for (Runnable command : pending) {
+            if (command instanceof ContextTask) {
+                ((ContextTask<?>)command).abandon(null);
+            } else if (command instanceof TaskFuture) {
+                ((TaskFuture<?>)command).task.abandon(null);
+            }
+        }
+        return pending;
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return delegate.isShutdown();
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return delegate.isTerminated();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return delegate.awaitTermination(timeout, unit);
+    }
+
+    /**
+     * Create a task capturing current context, acquiring an entry of the queue resource first if asked.
+     *
+     * @param queued whether the task waits in the queue of the executor
+     * @throws RejectedExecutionException if the queue resource is blocked
+     */
+    <T> ContextTask<T> newTask(Callable<T> callable, Runnable runnable, boolean queued) {
+        if (!queued || queueHandle == null) {
+            return new ContextTask<T>(callable, runnable, ContextUtil.getContext(), null, executionHandle);
+        }
+        AsyncEntryCompletion queueCompletion;
+        try {
+            queueCompletion = new AsyncEntryCompletion(queueHandle.reservingAsyncEntry(1));
+        } catch (BlockException e) {
+            throw new RejectedExecutionException("Task blocked by Sentinel: " + queueHandle.getName(), e);
+        }
+        // The async context of the queue entry is current context, or the default one if there was none.
+        Context parent = queueCompletion.getEntry().getAsyncContext();
+        return new ContextTask<T>(callable, runnable, parent, queueCompletion, executionHandle);
+    }
+
+    private void dispatch(final Runnable command, final ContextTask<?> task) {
+        long waitNanos = task.passWaitNanos();
+        if (waitNanos > 0) {
+            // A rate limiter of the queue resource reserved a later pass time, so the task joins the pool then.
+            PassTimer.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        delegate.execute(command);
+                    } catch (RuntimeException e) {
+                        task.abandon(e);
+                        if (command instanceof TaskFuture) {
+                            ((TaskFuture<?>)command).reject(e);
+                        }
+                        throw e;
+                    }
+                }
+            }, waitNanos);
+            return;
+        }
+        try {
+            delegate.execute(command);
+        } catch (RuntimeException e) {
+            task.abandon(e);
+            throw e;
+        }
+    }
+
+    /**
+     * A future of a {@link ContextTask}, releasing its queue entry if cancelled before it runs.
+     */
+    static final class TaskFuture<T> extends FutureTask<T> {
+
+        private final ContextTask<T> task;
+
+        TaskFuture(ContextTask<T> task) {
+            super(task);
+            this.task = task;
+        }
+
+        @Override
+        protected void done() {
+            if (isCancelled()) {
+                task.abandon(null);
+            }
+        }
+
+        /**
+         * Fail the future of a task rejected by the executor after its submission returned.
+         */
+        void reject(Throwable e) {
+            setException(e);
+        }
+    }
+}
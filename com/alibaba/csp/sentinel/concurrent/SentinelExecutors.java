@@ -0,0 +1,140 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.concurrent;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+
+import com.alibaba.csp.sentinel.EntryType;
+import com.alibaba.csp.sentinel.ResourceHandle;
+import com.alibaba.csp.sentinel.SphU;
+import com.alibaba.csp.sentinel.context.Context;
+import com.alibaba.csp.sentinel.context.ContextUtil;
+
+/**
+ * <p>
+ * Decorators of executors carrying the {@link Context} of the submitting thread into the pooled threads.
+ * </p>
+ * <p>
+ * Every task captures current context when it is submitted and runs on its own fork of it, with the same
+ * entrance node and origin, so that the entries of the task are counted in the context of its submitter.
+ * The context of the worker thread is restored when the task ends, so a task which misses
+ * {@link ContextUtil#exit()} leaves nothing behind in the pool.
+ * </p>
+ * <p>
+ * Given a resource name, the executor itself is protected by two resources:
+ * </p>
+ * <ul>
+ * <li>the queue resource, with the name, entered when a task is submitted and exited when it starts, so its
+ * RT is the queue wait time and its thread count the number of queued tasks;</li>
+ * <li>the execution resource, with the name followed by {@link #EXECUTION_SUFFIX}, entered when a task starts
+ * and exited when it ends, so its RT is the execution time and its thread count the number of busy workers.
+ * Its nodes are nested under the ones of the queue resource.</li>
+ * </ul>
+ * <p>
+ * A task blocked by the rules of either resource fails with a {@link RejectedExecutionException} caused by
+ * the {@link com.alibaba.csp.sentinel.slots.block.BlockException}: thrown on submission by the queue
+ * resource, or from the task (thus through its future) by the execution resource. A rate limiter of the
+ * queue resource does not make the submitting thread wait: it reserves a later pass time for the task, see
+ * {@link com.alibaba.csp.sentinel.ResourceHandle#reservingAsyncEntry(int, Object...)}, and the task joins
+ * the pool at that time.
+ * </p>
+ * <pre>
+ * ExecutorService workers = SentinelExecutors.wrap(Executors.newFixedThreadPool(16), "order-workers");
+ * </pre>
+ */
+public final class SentinelExecutors {
+
+    public static final String EXECUTION_SUFFIX = ":execution";
+
+    /**
+     * Wrap an executor service to carry the context of the submitting thread into its tasks.
+     *
+     * @param executor the executor service
+     * @return the wrapped executor service
+     */
+    public static ExecutorService wrap(ExecutorService executor) {
+        return new SentinelExecutorService(executor, null, null);
+    }
+
+    /**
+     * Wrap an executor service to carry the context of the submitting thread into its tasks, and protect it
+     * with a queue and an execution resource.
+     *
+     * @param executor     the executor service
+     * @param resourceName name of the queue resource
+     * @return the wrapped executor service
+     */
+    public static ExecutorService wrap(ExecutorService executor, String resourceName) {
+        return new SentinelExecutorService(executor, queueHandle(resourceName), executionHandle(resourceName));
+    }
+
+    /**
+     * Wrap a scheduled executor service to carry the context of the scheduling thread into its tasks.
+     *
+     * @param executor the scheduled executor service
+     * @return the wrapped scheduled executor service
+     */
+    public static ScheduledExecutorService wrap(ScheduledExecutorService executor) {
+        return new SentinelScheduledExecutorService(executor, null, null);
+    }
+
+    /**
+     * Wrap a scheduled executor service to carry the context of the scheduling thread into its tasks, and
+     * protect it with a queue and an execution resource. Delayed and periodic tasks skip the queue resource.
+     *
+     * @param executor     the scheduled executor service
+     * @param resourceName name of the queue resource
+     * @return the wrapped scheduled executor service
+     */
+    public static ScheduledExecutorService wrap(ScheduledExecutorService executor, String resourceName) {
+        return new SentinelScheduledExecutorService(executor, queueHandle(resourceName),
+            executionHandle(resourceName));
+    }
+
+    /**
+     * Wrap a task to run on a fork of current context, in whatever thread.
+     *
+     * @param task the task
+     * @return the wrapped task
+     */
+    public static Runnable wrap(Runnable task) {
+        return new ContextTask<Object>(null, task, ContextUtil.getContext(), null, null);
+    }
+
+    /**
+     * Wrap a task to run on a fork of current context, in whatever thread.
+     *
+     * @param task the task
+     * @param <V>  type of the result
+     * @return the wrapped task
+     */
+    public static <V> Callable<V> wrap(Callable<V> task) {
+        return new ContextTask<V>(task, null, ContextUtil.getContext(), null, null);
+    }
+
+    private static ResourceHandle queueHandle(String resourceName) {
+        return SphU.handle(resourceName, EntryType.OUT);
+    }
+
+    private static ResourceHandle executionHandle(String resourceName) {
+        return SphU.handle(resourceName + EXECUTION_SUFFIX, EntryType.OUT);
+    }
+
+    private SentinelExecutors() {}
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.concurrent;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import com.alibaba.csp.sentinel.ResourceHandle;
+
+/**
+ * A {@link ScheduledExecutorService} running every task on the context it was scheduled in. Delayed and
+ * periodic tasks are not counted by the queue resource, as their delay is not a queue wait, but every run
+ * is guarded by the execution resource.
+ */
+class SentinelScheduledExecutorService extends SentinelExecutorService implements ScheduledExecutorService {
+
+    private final ScheduledExecutorService delegate;
+
+    SentinelScheduledExecutorService(ScheduledExecutorService delegate, ResourceHandle queueHandle,
+                                     ResourceHandle executionHandle) {
+        super(delegate, queueHandle, executionHandle);
+        this.delegate = delegate;
+    }
+
+    @Override
+    public ScheduledFuture<?> schedule(Runnable command, long delay, TimeUnit unit) {
+        return delegate.schedule((Runnable)newTask(null, command, false), delay, unit);
+    }
+
+    @Override
+    public <V> ScheduledFuture<V> schedule(Callable<V> callable, long delay, TimeUnit unit) {
+        return delegate.schedule((Callable<V>)newTask(callable, null, false), delay, unit);
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleAtFixedRate(Runnable command, long initialDelay, long period, TimeUnit unit) {
+        return delegate.scheduleAtFixedRate(newTask(null, command, false), initialDelay, period, unit);
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleWithFixedDelay(Runnable command, long initialDelay, long delay,
+                                                     TimeUnit unit) {
+        return delegate.scheduleWithFixedDelay(newTask(null, command, false), initialDelay, delay, unit);
+    }
+}
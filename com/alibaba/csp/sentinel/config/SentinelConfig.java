@@ -40,9 +40,21 @@ public class SentinelConfig {
     public static final String SINGLE_METRIC_FILE_SIZE = "csp.sentinel.metric.file.single.size";
     public static final String TOTAL_METRIC_FILE_COUNT = "csp.sentinel.metric.file.total.count";
     public static final String COLD_FACTOR = "csp.sentinel.flow.cold.factor";
+    public static final String STATISTIC_ROLLING_SUM = "csp.sentinel.statistic.rolling.sum";
+    public static final String STATISTIC_MINUTE_LAZY = "csp.sentinel.statistic.minute.lazy";
+    public static final String STATISTIC_RT_HISTOGRAM = "csp.sentinel.statistic.rt.histogram";
+    public static final String STATISTIC_RT_MICROS = "csp.sentinel.statistic.rt.micros";
+    public static final String CLOCK = "csp.sentinel.clock";
+    public static final String CLOCK_IDLE_QPS = "csp.sentinel.clock.idle.qps";
+    public static final String ENTRY_RECYCLE = "csp.sentinel.entry.recycle";
+    public static final String CONTEXT_STORAGE = "csp.sentinel.context.storage";
+    public static final String IDLE_EVICT_MINUTES = "csp.sentinel.idle.evict.minutes";
+    public static final String FLOW_PACE_WAIT = "csp.sentinel.flow.pace.wait";
 
     static final long DEFAULT_SINGLE_METRIC_FILE_SIZE = 1024 * 1024 * 50;
     static final int DEFAULT_TOTAL_METRIC_FILE_COUNT = 6;
+    static final long DEFAULT_CLOCK_IDLE_QPS = 100;
+    static final int DEFAULT_IDLE_EVICT_MINUTES = 0;
 
     static {
         initialize();
@@ -55,6 +67,16 @@ public class SentinelConfig {
         SentinelConfig.setConfig(SINGLE_METRIC_FILE_SIZE, String.valueOf(DEFAULT_SINGLE_METRIC_FILE_SIZE));
         SentinelConfig.setConfig(TOTAL_METRIC_FILE_COUNT, String.valueOf(DEFAULT_TOTAL_METRIC_FILE_COUNT));
         SentinelConfig.setConfig(COLD_FACTOR, String.valueOf(3));
+        SentinelConfig.setConfig(STATISTIC_ROLLING_SUM, String.valueOf(false));
+        SentinelConfig.setConfig(STATISTIC_MINUTE_LAZY, String.valueOf(false));
+        SentinelConfig.setConfig(STATISTIC_RT_HISTOGRAM, String.valueOf(false));
+        SentinelConfig.setConfig(STATISTIC_RT_MICROS, String.valueOf(false));
+        SentinelConfig.setConfig(CLOCK, "tick");
+        SentinelConfig.setConfig(CLOCK_IDLE_QPS, String.valueOf(DEFAULT_CLOCK_IDLE_QPS));
+        SentinelConfig.setConfig(ENTRY_RECYCLE, String.valueOf(false));
+        SentinelConfig.setConfig(CONTEXT_STORAGE, "threadlocal");
+        SentinelConfig.setConfig(IDLE_EVICT_MINUTES, String.valueOf(DEFAULT_IDLE_EVICT_MINUTES));
+        SentinelConfig.setConfig(FLOW_PACE_WAIT, "sleep");
     }
 
     private static void loadProps() {
@@ -143,4 +165,118 @@ public class SentinelConfig {
             return DEFAULT_TOTAL_METRIC_FILE_COUNT;
         }
     }
+
+    /**
+     * Whether node statistics keep running totals, so that QPS reads cost the same
+     * no matter how many buckets a sliding window has.
+     *
+     * @return true if the rolling-sum mode is enabled
+     */
+    public static boolean statisticRollingSum() {
+        return Boolean.parseBoolean(props.get(STATISTIC_ROLLING_SUM));
+    }
+
+    /**
+     * Whether only {@link com.alibaba.csp.sentinel.node.ClusterNode}s keep minute-level statistics up front,
+     * while other nodes create them when their metrics are first exported. Their totals come from 6 buckets of
+     * 10 seconds instead, and the previous-second counts used by warm-up rules from a 2-second window created
+     * on the first read.
+     *
+     * @return true if minute-level statistics are lazy
+     */
+    public static boolean statisticMinuteLazy() {
+        return Boolean.parseBoolean(props.get(STATISTIC_MINUTE_LAZY));
+    }
+
+    /**
+     * Whether second-level statistics record the RT distribution, so that
+     * {@link com.alibaba.csp.sentinel.node.Node#rtPercentile(double)} can be answered.
+     *
+     * @return true if RT histograms are enabled
+     */
+    public static boolean statisticRtHistogram() {
+        return Boolean.parseBoolean(props.get(STATISTIC_RT_HISTOGRAM));
+    }
+
+    /**
+     * Whether RT is measured with {@link System#nanoTime()} and recorded in microseconds.
+     * Only read once at startup, see {@link com.alibaba.csp.sentinel.util.RtUtil}.
+     *
+     * @return true if RT is recorded in microseconds
+     */
+    public static boolean statisticRtMicros() {
+        return Boolean.parseBoolean(props.get(STATISTIC_RT_MICROS));
+    }
+
+    /**
+     * Get the built-in clock used by {@link com.alibaba.csp.sentinel.util.TimeUtil}: {@code tick} (a thread
+     * refreshing the time every millisecond), {@code adaptive} (ticking only when traffic is high) or
+     * {@code direct} (reading the system time on every call).
+     *
+     * @return the clock type
+     */
+    public static String clock() {
+        return props.get(CLOCK);
+    }
+
+    public static long clockIdleQps() {
+        try {
+            return Long.parseLong(props.get(CLOCK_IDLE_QPS));
+        } catch (Throwable throwable) {
+            RecordLog.info("[SentinelConfig] Parse clockIdleQps fail, use default value: "
+                + DEFAULT_CLOCK_IDLE_QPS, throwable);
+            return DEFAULT_CLOCK_IDLE_QPS;
+        }
+    }
+
+    /**
+     * Whether synchronous entries are recycled per thread (default false). Only read once at startup. In this
+     * mode an {@link com.alibaba.csp.sentinel.Entry} is a handle of a pooled entry: exiting it again throws
+     * {@link com.alibaba.csp.sentinel.ErrorEntryFreeException} instead of ending the invocation which reuses
+     * the pooled entry, and its accessors read nothing once the pooled entry has been reused.
+     *
+     * @return true if entries are recycled
+     */
+    public static boolean entryRecycle() {
+        return Boolean.parseBoolean(props.get(ENTRY_RECYCLE));
+    }
+
+    /**
+     * Get the built-in storage of the current {@link com.alibaba.csp.sentinel.context.Context}:
+     * {@code threadlocal} or {@code inheritable} (forked into the threads created inside an entry). Only read once
+     * at startup, and ignored if a custom storage is provided through SPI.
+     *
+     * @return the context storage type
+     */
+    public static String contextStorage() {
+        return props.get(CONTEXT_STORAGE);
+    }
+
+    /**
+     * Get the minutes after which idle resources and contexts without rules are evicted periodically.
+     * Idle ones are always evicted when the limit of resources or contexts is reached, no matter this value.
+     *
+     * @return idle minutes before eviction, 0 or below if periodic eviction is disabled
+     */
+    public static int idleEvictMinutes() {
+        try {
+            return Integer.parseInt(props.get(IDLE_EVICT_MINUTES));
+        } catch (Throwable throwable) {
+            RecordLog.info("[SentinelConfig] Parse idleEvictMinutes fail, use default value: "
+                + DEFAULT_IDLE_EVICT_MINUTES, throwable);
+            return DEFAULT_IDLE_EVICT_MINUTES;
+        }
+    }
+
+    /**
+     * Get how requests queued by the rate limiter behavior wait for their turn: {@code sleep} (the calling
+     * thread sleeps) or {@code park} (the calling thread is parked until the exact nanosecond). Only read once
+     * at startup. Asynchronous entries which let their pass time be reserved do not wait at all, see
+     * {@link com.alibaba.csp.sentinel.AsyncEntry#isPassReservable()}.
+     *
+     * @return the wait mode of rate limiters
+     */
+    public static String flowPaceWait() {
+        return props.get(FLOW_PACE_WAIT);
+    }
 }
@@ -78,6 +78,18 @@ public class Context {
 
     private final boolean async;
 
+    /**
+     * Whether a thread has been created inside this context and got a fork of it, see
+     * {@link InheritableContextStorage}. Only accessed by the thread holding this context.
+     */
+    boolean forked = false;
+
+    /**
+     * Count of the invocations of this context which have ended, only maintained once it has been forked.
+     * A fork expires once the invocation it was made in has ended.
+     */
+    private volatile int endedInvocations = 0;
+
     /**
      * Create a new async context.
      *
@@ -104,6 +116,22 @@ public class Context {
         return async;
     }
 
+    /**
+     * Mark the end of an invocation in this context, i.e. its outermost entry has exited or the context
+     * itself has exited, so that the forks made during the invocation expire. Does nothing unless a thread
+     * has been created inside this context with the inheritable context storage.
+     */
+    public void endInvocation() {
+        if (forked) {
+            // Only the thread holding this context writes it.
+            endedInvocations = endedInvocations + 1;
+        }
+    }
+
+    int getEndedInvocations() {
+        return endedInvocations;
+    }
+
     public String getName() {
         return name;
     }
@@ -0,0 +1,52 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.context;
+
+/**
+ * <p>
+ * Holds the {@link Context} of current invocation for {@link ContextUtil}.
+ * </p>
+ * <p>
+ * The built-in storages bind the context to current thread, see {@link ThreadLocalContextStorage} and
+ * {@link InheritableContextStorage}. A custom storage, e.g. one bound to a scope or a carrier of the
+ * runtime, can be provided through SPI ({@code META-INF/services}), and takes precedence over the
+ * built-in ones. Whatever the storage, a context must only be used by one thread at a time.
+ * </p>
+ *
+ * @see com.alibaba.csp.sentinel.config.SentinelConfig#CONTEXT_STORAGE
+ */
+public interface ContextStorage {
+
+    /**
+     * Get the context of current invocation.
+     *
+     * @return the context, or null if there is none
+     */
+    Context get();
+
+    /**
+     * Set the context of current invocation.
+     *
+     * @param context the context, never null
+     */
+    void set(Context context);
+
+    /**
+     * Remove the context of current invocation. This is done on every exit of an outermost entry, so an
+     * implementation may keep whatever it holds per thread for the next {@link #set(Context)}.
+     */
+    void remove();
+}
@@ -17,17 +17,26 @@ package com.alibaba.csp.sentinel.context;
 
 import com.alibaba.csp.sentinel.Constants;
 import com.alibaba.csp.sentinel.EntryType;
+import com.alibaba.csp.sentinel.ResourceEvictor;
 import com.alibaba.csp.sentinel.SphO;
 import com.alibaba.csp.sentinel.SphU;
+import com.alibaba.csp.sentinel.config.SentinelConfig;
 import com.alibaba.csp.sentinel.log.RecordLog;
 import com.alibaba.csp.sentinel.node.DefaultNode;
 import com.alibaba.csp.sentinel.node.EntranceNode;
 import com.alibaba.csp.sentinel.node.Node;
 import com.alibaba.csp.sentinel.slotchain.StringResourceWrapper;
 import com.alibaba.csp.sentinel.slots.nodeselector.NodeSelectorSlot;
+import com.alibaba.csp.sentinel.util.TimeUtil;
 
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.ServiceLoader;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.ReentrantLock;
 
 /**
@@ -45,9 +54,9 @@ import java.util.concurrent.locks.ReentrantLock;
 public class ContextUtil {
 
     /**
-     * Store the context in ThreadLocal for easy access.
+     * Store the context of current invocation for easy access, in a ThreadLocal by default.
      */
-    private static ThreadLocal<Context> contextHolder = new ThreadLocal<Context>();
+    private static final ContextStorage contextStorage = resolveStorage();
 
     /**
      * Holds all {@link EntranceNode}.
@@ -61,6 +70,15 @@ public class ContextUtil {
     private static final ReentrantLock LOCK = new ReentrantLock();
     private static final Context NULL_CONTEXT = new NullContext();
 
+    private static final long EVICT_RETRY_INTERVAL_MS = 1000;
+
+    /**
+     * Names of the contexts found idle by the last check, guarded by {@link #LOCK}.
+     */
+    private static Set<String> idleContextNames = Collections.emptySet();
+    private static volatile long lastEvictMissTime = 0;
+    private static final AtomicLong evictedCount = new AtomicLong();
+
     static {
         // Cache the entrance node for default context.
         initDefaultContext();
@@ -129,7 +147,12 @@ public class ContextUtil {
      */
     protected static Context trueEnter(String name, String origin) {
         //获取当前线程的上下文环境
-        Context context = contextHolder.get();
+        Context context = currentContext();
+        if (context instanceof InheritableContextStorage.InheritedContext && context.getCurEntry() == null
+            && !isSameContext(context, name, origin)) {
+            // A fork inherited from the thread which created current one is replaced.
+            context = null;
+        }
         /*
          * 创建context
          *
@@ -142,7 +165,8 @@ public class ContextUtil {
              * 如果contextNameNodeMap超过了Constants.MAX_CONTEXT_NAME_SIZE（2000）则会返回NullContext
              */
             if (node == null) {
-                if (localCacheNameMap.size() > Constants.MAX_CONTEXT_NAME_SIZE) {
+                if (localCacheNameMap.size() > Constants.MAX_CONTEXT_NAME_SIZE
+                    && TimeUtil.currentTimeMillis() - lastEvictMissTime < EVICT_RETRY_INTERVAL_MS) {
                     setNullContext();
                     return NULL_CONTEXT;
                 } else {
@@ -150,7 +174,12 @@ public class ContextUtil {
                         LOCK.lock();
                         node = contextNameNodeMap.get(name);
                         if (node == null) {
-                            if (contextNameNodeMap.size() > Constants.MAX_CONTEXT_NAME_SIZE) {
+                            // Make room by evicting idle contexts first.
+                            if (contextNameNodeMap.size() > Constants.MAX_CONTEXT_NAME_SIZE
+                                && evictIdleContexts() == 0) {
+                                // Idle contexts are found by the check task, start it on the first miss.
+                                ResourceEvictor.start();
+                                lastEvictMissTime = TimeUtil.currentTimeMillis();
                                 setNullContext();
                                 return NULL_CONTEXT;
                             } else {
@@ -173,18 +202,28 @@ public class ContextUtil {
                     }
                 }
             }
-            context = new Context(node, name);
+            context = newContext(node, name);
             context.setOrigin(origin);
-            contextHolder.set(context);
+            contextStorage.set(context);
         }
 
         return context;
     }
 
+    private static boolean isSameContext(Context context, String name, String origin) {
+        String contextOrigin = context.getOrigin();
+        return name.equals(context.getName())
+            && (origin == null ? contextOrigin == null : origin.equals(contextOrigin));
+    }
+
+    private static Context newContext(DefaultNode node, String name) {
+        return new Context(node, name);
+    }
+
     private static boolean shouldWarn = true;
 
     private static void setNullContext() {
-        contextHolder.set(NULL_CONTEXT);
+        contextStorage.set(NULL_CONTEXT);
         // Don't need to be thread-safe.
         if (shouldWarn) {
             RecordLog.warn("[SentinelStatusChecker] WARN: Amount of context exceeds the threshold "
@@ -221,9 +260,10 @@ public class ContextUtil {
      * ThreadLocal.
      */
     public static void exit() {
-        Context context = contextHolder.get();
+        Context context = contextStorage.get();
         if (context != null && context.getCurEntry() == null) {
-            contextHolder.set(null);
+            context.endInvocation();
+            contextStorage.remove();
         }
     }
 
@@ -237,6 +277,72 @@ public class ContextUtil {
         return contextNameNodeMap.size();
     }
 
+    /**
+     * Get the number of contexts evicted so far.
+     *
+     * @return count of evicted contexts
+     */
+    public static long evictedContextCount() {
+        return evictedCount.get();
+    }
+
+    /**
+     * <p>
+     * Find the idle contexts, whose entrance node has no child node left, as all resources entered in them
+     * have been evicted. Invoked once a minute by {@link ResourceEvictor}.
+     * </p>
+     * <p>
+     * Contexts found idle by the previous check and still idle can be evicted, except the default one.
+     * They are also evicted when the limit of contexts is reached, no matter provided flag. Threads still
+     * in an evicted context keep using it, while new ones get a new entrance node.
+     * </p>
+     *
+     * @param evict whether to evict the contexts found idle by the previous check
+     * @return the number of evicted contexts
+     */
+    public static int checkIdleContexts(boolean evict) {
+        try {
+            LOCK.lock();
+            int evicted = evict ? evictIdleContexts() : 0;
+            Set<String> idleNames = new HashSet<String>();
+            for (Map.Entry<String, DefaultNode> entry : contextNameNodeMap.entrySet()) {
+                if (entry.getValue().getChildList().isEmpty()) {
+                    idleNames.add(entry.getKey());
+                }
+            }
+            idleContextNames = idleNames;
+            return evicted;
+        } finally {
+            LOCK.unlock();
+        }
+    }
+
+    /**
+     * Evict the contexts found idle by the last check which are still idle. Must be invoked under {@link #LOCK}.
+     */
+    private static int evictIdleContexts() {
+        Map<String, DefaultNode> newMap = null;
+        for (String name : idleContextNames) {
+            DefaultNode node = contextNameNodeMap.get(name);
+            if (node == null || !node.getChildList().isEmpty() || Constants.CONTEXT_DEFAULT_NAME.equals(name)) {
+                continue;
+            }
+            if (newMap == null) {
+                newMap = new HashMap<String, DefaultNode>(contextNameNodeMap);
+            }
+            newMap.remove(name);
+            Constants.ROOT.removeChild(node);
+        }
+        if (newMap == null) {
+            return 0;
+        }
+        int evicted = contextNameNodeMap.size() - newMap.size();
+        contextNameNodeMap = newMap;
+        evictedCount.addAndGet(evicted);
+        RecordLog.info("[ContextUtil] Evicted " + evicted + " idle contexts");
+        return evicted;
+    }
+
     /**
      * Check if provided context is a default auto-created context.
      *
@@ -258,7 +364,21 @@ public class ContextUtil {
      * thread does't have context.
      */
     public static Context getContext() {
-        return contextHolder.get();
+        return currentContext();
+    }
+
+    /**
+     * Get the context in storage, dropping a fork inherited from the thread which created current one once
+     * the invocation it was made in has ended, see {@link InheritableContextStorage}.
+     */
+    private static Context currentContext() {
+        Context context = contextStorage.get();
+        if (context instanceof InheritableContextStorage.InheritedContext && context.getCurEntry() == null
+            && ((InheritableContextStorage.InheritedContext)context).isExpired()) {
+            contextStorage.remove();
+            return null;
+        }
+        return context;
     }
 
     /**
@@ -276,11 +396,11 @@ public class ContextUtil {
      * @since 0.2.0
      */
     static Context replaceContext(Context newContext) {
-        Context backupContext = contextHolder.get();
+        Context backupContext = contextStorage.get();
         if (newContext == null) {
-            contextHolder.remove();
+            contextStorage.remove();
         } else {
-            contextHolder.set(newContext);
+            contextStorage.set(newContext);
         }
         return backupContext;
     }
@@ -301,4 +421,37 @@ public class ContextUtil {
             replaceContext(curContext);
         }
     }
+
+    /**
+     * Execute the code within provided context and return its result.
+     *
+     * @param context the context
+     * @param f       the code to run within the context
+     * @param <V>     type of the result
+     * @return the result of the code
+     * @throws Exception thrown by the code
+     */
+    public static <V> V runOnContext(Context context, Callable<V> f) throws Exception {
+        Context curContext = replaceContext(context);
+        try {
+            return f.call();
+        } finally {
+            replaceContext(curContext);
+        }
+    }
+
+    private static ContextStorage resolveStorage() {
+        try {
+            for (ContextStorage custom : ServiceLoader.load(ContextStorage.class)) {
+                RecordLog.info("[ContextUtil] Using custom context storage: " + custom.getClass().getCanonicalName());
+                return custom;
+            }
+        } catch (Throwable t) {
+            RecordLog.warn("[ContextUtil] Failed to load custom context storage, using built-in one", t);
+        }
+        if ("inheritable".equalsIgnoreCase(SentinelConfig.contextStorage())) {
+            return new InheritableContextStorage();
+        }
+        return new ThreadLocalContextStorage();
+    }
 }
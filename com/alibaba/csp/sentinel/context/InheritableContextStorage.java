@@ -0,0 +1,110 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.context;
+
+/**
+ * <p>
+ * A {@link ContextStorage} whose context is inherited by the threads created inside an invocation, i.e. while
+ * an entry of the parent thread has not exited, so that e.g. the subtasks of an invocation need not enter a
+ * context again.
+ * </p>
+ * <p>
+ * A child thread does not share the context of its parent, which is not thread-safe, but gets a fork of it:
+ * an async context with the same entrance node, name and origin, and no current entry. Entries in the child
+ * are then counted under the same context, without any lookup or lock, but are not linked to the entry of
+ * the parent in the invocation tree. The fork is only made when the thread is created. A thread created
+ * outside any entry starts without a context as with {@link ThreadLocalContextStorage}.
+ * </p>
+ * <p>
+ * The fork only lives as long as the invocation of the parent it was made in: once the outermost entry of
+ * the parent has exited, or the parent context has exited, the fork is dropped the next time the child
+ * looks up its context without being inside an entry, and the child falls back to the default context or
+ * to whatever context it enters. A pool worker created lazily by an invocation thus only counts the tasks
+ * it runs during that invocation under it. Executors should still propagate the context of each task, see
+ * {@link com.alibaba.csp.sentinel.concurrent.SentinelExecutors}.
+ * </p>
+ * <p>
+ * This storage is built on {@link InheritableThreadLocal} and works on any JDK. A storage bound to a
+ * {@code ScopedValue}, for virtual threads and structured concurrency on Java 21 and later, can be provided
+ * through SPI instead, see {@link ContextStorage}.
+ * </p>
+ */
+public class InheritableContextStorage implements ContextStorage {
+
+    private final InheritableThreadLocal<Context> holder = new InheritableThreadLocal<Context>() {
+        @Override
+        protected Context childValue(Context parent) {
+            return fork(parent);
+        }
+    };
+
+    @Override
+    public Context get() {
+        return holder.get();
+    }
+
+    @Override
+    public void set(Context context) {
+        holder.set(context);
+    }
+
+    @Override
+    public void remove() {
+        // Keep the entry of the thread-local map, which would otherwise be allocated again on next set.
+        holder.set(null);
+    }
+
+    /**
+     * Invoked in the parent thread, while the child thread is being created.
+     */
+    private static Context fork(Context parent) {
+        if (parent == null || parent instanceof NullContext) {
+            return parent;
+        }
+        if (parent.getCurEntry() == null) {
+            // Not inside an invocation, so there is nothing for the child to take part in.
+            return null;
+        }
+        return new InheritedContext(parent);
+    }
+
+    /**
+     * An async context forked from the context of the parent thread, valid during the invocation of the parent
+     * it was made in.
+     */
+    static final class InheritedContext extends Context {
+
+        private final Context parent;
+        private final int parentInvocation;
+
+        InheritedContext(Context parent) {
+            super(parent.getName(), parent.getEntranceNode(), true);
+            setOrigin(parent.getOrigin());
+            parent.forked = true;
+            this.parent = parent;
+            this.parentInvocation = parent.getEndedInvocations();
+        }
+
+        /**
+         * Whether the invocation of the parent this fork was made in has ended, or the parent itself is
+         * an expired fork.
+         */
+        boolean isExpired() {
+            return parent.getEndedInvocations() != parentInvocation
+                || parent instanceof InheritedContext && ((InheritedContext)parent).isExpired();
+        }
+    }
+}
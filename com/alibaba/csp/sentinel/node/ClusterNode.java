@@ -67,6 +67,7 @@ public class ClusterNode extends StatisticNode {
                 statisticNode = originCountMap.get(origin);
                 if (statisticNode == null) {
                     statisticNode = new StatisticNode();
+                    statisticNode.resizeWindow(getWindowLengthInMs(), getWindowIntervalInSec());
                     HashMap<String, StatisticNode> newMap = new HashMap<String, StatisticNode>(
                         originCountMap.size() + 1);
                     newMap.putAll(originCountMap);
@@ -80,6 +81,15 @@ public class ClusterNode extends StatisticNode {
         return statisticNode;
     }
 
+    /**
+     * Minute-level statistics of a resource are always kept, as they are exported by
+     * {@link com.alibaba.csp.sentinel.node.metric.MetricTimerListener}.
+     */
+    @Override
+    protected boolean keepMinuteMetric() {
+        return true;
+    }
+
     public synchronized HashMap<String, StatisticNode> getOriginCountMap() {
         return originCountMap;
     }
@@ -92,9 +102,7 @@ public class ClusterNode extends StatisticNode {
      */
     public void trace(Throwable throwable, int count) {
         if (!BlockException.isBlockException(throwable)) {
-            for (int i = 0; i < count; i++) {
-                this.increaseExceptionQps();
-            }
+            this.increaseExceptionQps(count);
         }
     }
 }
@@ -79,6 +79,20 @@ public class DefaultNode extends StatisticNode {
         }
     }
 
+    public void removeChild(Node node) {
+
+        if (childList.contains(node)) {
+
+            synchronized (this) {
+                if (childList.contains(node)) {
+                    HashSet<Node> newSet = new HashSet<Node>(childList);
+                    newSet.remove(node);
+                    childList = newSet;
+                }
+            }
+        }
+    }
+
     public void removeChildList() {
         this.childList = new HashSet<Node>();
     }
@@ -88,21 +102,21 @@ public class DefaultNode extends StatisticNode {
     }
 
     @Override
-    public void increaseBlockQps() {
-        super.increaseBlockQps();
-        this.clusterNode.increaseBlockQps();
+    public void increaseBlockQps(int count) {
+        super.increaseBlockQps(count);
+        this.clusterNode.increaseBlockQps(count);
     }
 
     @Override
-    public void increaseExceptionQps() {
-        super.increaseExceptionQps();
-        this.clusterNode.increaseExceptionQps();
+    public void increaseExceptionQps(int count) {
+        super.increaseExceptionQps(count);
+        this.clusterNode.increaseExceptionQps(count);
     }
 
     @Override
-    public void rt(long rt) {
-        super.rt(rt);
-        this.clusterNode.rt(rt);
+    public void rt(long rt, int count) {
+        super.rt(rt, count);
+        this.clusterNode.rt(rt, count);
     }
 
     @Override
@@ -118,9 +132,9 @@ public class DefaultNode extends StatisticNode {
     }
 
     @Override
-    public void addPassRequest() {
-        super.addPassRequest();
-        this.clusterNode.addPassRequest();
+    public void addPassRequest(int count) {
+        super.addPassRequest(count);
+        this.clusterNode.addPassRequest(count);
     }
 
     public void printDefaultNode() {
@@ -53,6 +53,30 @@ public class EntranceNode extends DefaultNode {
         return rt / (totalQps == 0 ? 1 : totalQps);
     }
 
+    /**
+     * Histograms of the children are not merged, so the highest percentile RT among them is returned,
+     * which is an upper bound of the real one.
+     */
+    @Override
+    public long rtPercentile(double percentile) {
+        long rt = 0;
+        for (Node node : getChildList()) {
+            rt = Math.max(rt, node.rtPercentile(percentile));
+        }
+        return rt;
+    }
+
+    @Override
+    public long avgRtInMicros() {
+        long rt = 0;
+        long totalQps = 0;
+        for (Node node : getChildList()) {
+            rt += node.avgRtInMicros() * node.passQps();
+            totalQps += node.passQps();
+        }
+        return rt / (totalQps == 0 ? 1 : totalQps);
+    }
+
     @Override
     public long blockQps() {
         int blockQps = 0;
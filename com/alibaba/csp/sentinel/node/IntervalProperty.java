@@ -18,7 +18,6 @@ package com.alibaba.csp.sentinel.node;
 import com.alibaba.csp.sentinel.log.RecordLog;
 import com.alibaba.csp.sentinel.property.SentinelProperty;
 import com.alibaba.csp.sentinel.property.SimplePropertyListener;
-import com.alibaba.csp.sentinel.slots.clusterbuilder.ClusterBuilderSlot;
 
 /***
  * QPS statistics interval.
@@ -50,15 +49,15 @@ public class IntervalProperty {
     }
 
     /**
-     * Update the {@link #INTERVAL}, All {@link ClusterNode}s will be reset if newInterval is
-     * different from {@link #INTERVAL}
+     * Update the {@link #INTERVAL}. If newInterval is different from {@link #INTERVAL}, all nodes
+     * without their own {@link WindowConfig} will be resized, carrying their recent counts over.
      *
      * @param newInterval New interval to set.
      */
     public static void updateInterval(int newInterval) {
         if (newInterval != INTERVAL) {
             INTERVAL = newInterval;
-            ClusterBuilderSlot.resetClusterNodes();
+            WindowConfigManager.refreshNodes();
         }
         RecordLog.info("INTERVAL updated to: " + INTERVAL);
     }
@@ -84,6 +84,26 @@ public interface Node {
 
     long minRt();
 
+    /**
+     * Get average rt in microseconds. Sub-millisecond precision is only available if RT is
+     * recorded in microseconds, see {@link com.alibaba.csp.sentinel.util.RtUtil}.
+     */
+    long avgRtInMicros();
+
+    /**
+     * Get minimal rt in microseconds, see {@link #avgRtInMicros()}.
+     */
+    long minRtInMicros();
+
+    /**
+     * Get the RT at provided percentile of the recent interval. The average RT is returned instead
+     * if RT histograms are not enabled, see {@link com.alibaba.csp.sentinel.config.SentinelConfig#statisticRtHistogram()}.
+     *
+     * @param percentile the percentile, from 0 to 100, e.g. 99 for p99
+     * @return the RT at the percentile
+     */
+    long rtPercentile(double percentile);
+
     /**
      * Get current active thread count.
      */
@@ -103,6 +123,13 @@ public interface Node {
 
     void addPassRequest();
 
+    /**
+     * Add pass count.
+     *
+     * @param count count to add
+     */
+    void addPassRequest(int count);
+
     /**
      * Add rt and success count.
      *
@@ -110,17 +137,40 @@ public interface Node {
      */
     void rt(long rt);
 
+    /**
+     * Add success count by provided count, each success taking the given rt, so that the average RT
+     * of a batch acquiring many tokens is the time of its invocation.
+     *
+     * @param rt    response time of the invocation
+     * @param count success count to add
+     */
+    void rt(long rt, int count);
+
     void increaseBlockQps();
 
+    /**
+     * Add block count.
+     *
+     * @param count count to add
+     */
+    void increaseBlockQps(int count);
+
     void increaseExceptionQps();
 
+    /**
+     * Add exception count.
+     *
+     * @param count count to add
+     */
+    void increaseExceptionQps(int count);
+
     void increaseThreadNum();
 
     void decreaseThreadNum();
 
     /**
-     * Reset the internal counter. Reset is needed when {@link IntervalProperty#INTERVAL} or
-     * {@link SampleCountProperty#SAMPLE_COUNT} is changed.
+     * Reset the internal counter, keeping the current window layout. Changes of {@link IntervalProperty#INTERVAL}
+     * or {@link SampleCountProperty#SAMPLE_COUNT} are applied by {@link WindowConfigManager} instead.
      */
     void reset();
 
@@ -18,7 +18,6 @@ package com.alibaba.csp.sentinel.node;
 import com.alibaba.csp.sentinel.log.RecordLog;
 import com.alibaba.csp.sentinel.property.SentinelProperty;
 import com.alibaba.csp.sentinel.property.SimplePropertyListener;
-import com.alibaba.csp.sentinel.slots.clusterbuilder.ClusterBuilderSlot;
 
 /**
  * Holds statistic buckets count per second.
@@ -50,15 +49,15 @@ public class SampleCountProperty {
     }
 
     /**
-     * Update the {@link #SAMPLE_COUNT}. All {@link ClusterNode}s will be reset if newSampleCount
-     * is different from {@link #SAMPLE_COUNT}.
+     * Update the {@link #SAMPLE_COUNT}. If newSampleCount is different from {@link #SAMPLE_COUNT}, all nodes
+     * without their own {@link WindowConfig} will be resized, carrying their recent counts over.
      *
      * @param newSampleCount New sample count to set. This value must be divisor of 1000.
      */
     public static void updateSampleCount(int newSampleCount) {
         if (newSampleCount != SAMPLE_COUNT) {
             SAMPLE_COUNT = newSampleCount;
-            ClusterBuilderSlot.resetClusterNodes();
+            WindowConfigManager.refreshNodes();
         }
         RecordLog.info("SAMPLE_COUNT updated to: " + SAMPLE_COUNT);
     }
@@ -15,9 +15,12 @@
  */
 package com.alibaba.csp.sentinel.node;
 
+import com.alibaba.csp.sentinel.config.SentinelConfig;
 import com.alibaba.csp.sentinel.node.metric.MetricNode;
 import com.alibaba.csp.sentinel.slots.statistic.metric.ArrayMetric;
 import com.alibaba.csp.sentinel.slots.statistic.metric.Metric;
+import com.alibaba.csp.sentinel.slots.statistic.metric.MetricSnapshot;
+import com.alibaba.csp.sentinel.util.RtUtil;
 import com.alibaba.csp.sentinel.util.TimeUtil;
 
 import java.util.List;
@@ -36,25 +39,110 @@ public class StatisticNode implements Node {
      *
      * 主要实现{@link ArrayMetric}
      */
-    private transient volatile Metric rollingCounterInSecond = new ArrayMetric(1000 / SampleCountProperty.SAMPLE_COUNT,
+    private transient volatile Metric rollingCounterInSecond = newSecondMetric(1000 / SampleCountProperty.SAMPLE_COUNT,
         IntervalProperty.INTERVAL);
 
     /**
      * Holds statistics of the recent 60 seconds. The windowLengthInMs is deliberately set to 1000 milliseconds,
      * meaning each bucket per second, in this way we can get accurate statistics of each second.
+     * <p>
+     * When {@link SentinelConfig#statisticMinuteLazy()} is enabled, only {@link ClusterNode}s create it up front.
+     * Other nodes create it when their metrics are first exported by {@link #metrics()}, and only record from
+     * then on. Their totals come from {@link #rollingCounterInMinuteTotals} instead.
+     * </p>
      */
-    private transient Metric rollingCounterInMinute = new ArrayMetric(1000, 60);
+    private transient volatile Metric rollingCounterInMinute = keepMinuteMetric() ? newMinuteMetric() : null;
+
+    /**
+     * Holds the counts of the recent 60 seconds in 6 buckets of 10 seconds, for the totals of nodes created
+     * without the minute-level metric. The oldest bucket drops out as a whole, so the totals cover the recent
+     * 50 to 60 seconds. Null if the minute-level metric is created up front.
+     */
+    private final transient Metric rollingCounterInMinuteTotals = rollingCounterInMinute == null
+        ? new ArrayMetric(10000, 60) : null;
+
+    /**
+     * Holds the pass and block counts of the recent 2 seconds, one bucket each, for {@link #previousPassQps()}
+     * and {@link #previousBlockQps()} of nodes created without the minute-level metric, e.g. origin nodes with
+     * warm-up rules. It is only created by the first read, as most nodes are never asked, so that read and
+     * the next second see no previous counts yet.
+     */
+    private transient volatile Metric rollingCounterInLastSeconds;
 
     private AtomicInteger curThreadNum = new AtomicInteger(0);
 
     private long lastFetchTime = -1;
 
+    /**
+     * Whether this node creates its minute-level metric up front.
+     *
+     * @return true unless the lazy minute-level statistics mode is enabled
+     */
+    protected boolean keepMinuteMetric() {
+        return !SentinelConfig.statisticMinuteLazy();
+    }
+
+    private static Metric newSecondMetric(int windowLengthInMs, int intervalInSec) {
+        return new ArrayMetric(windowLengthInMs, intervalInSec, SentinelConfig.statisticRollingSum(),
+            SentinelConfig.statisticRtHistogram());
+    }
+
+    private Metric newMinuteMetric() {
+        return new ArrayMetric(1000, 60, SentinelConfig.statisticRollingSum());
+    }
+
+    /**
+     * Get the metric holding the previous-second counts, creating it if absent.
+     */
+    private Metric lastSecondsMetric() {
+        if (rollingCounterInMinuteTotals == null) {
+            // The minute-level metric was created up front.
+            return rollingCounterInMinute;
+        }
+        Metric lastSeconds = rollingCounterInLastSeconds;
+        if (lastSeconds == null) {
+            synchronized (this) {
+                lastSeconds = rollingCounterInLastSeconds;
+                if (lastSeconds == null) {
+                    lastSeconds = new ArrayMetric(1000, 2);
+                    rollingCounterInLastSeconds = lastSeconds;
+                }
+            }
+        }
+        return lastSeconds;
+    }
+
+    /**
+     * Get the metric the totals are read from.
+     */
+    private Metric totalsMetric() {
+        Metric totals = rollingCounterInMinuteTotals;
+        return totals != null ? totals : rollingCounterInMinute;
+    }
+
+    /**
+     * Get the minute-level metric, creating it if absent. Only used by the metric exporter.
+     */
+    private Metric minuteMetric() {
+        Metric minuteMetric = rollingCounterInMinute;
+        if (minuteMetric == null) {
+            synchronized (this) {
+                minuteMetric = rollingCounterInMinute;
+                if (minuteMetric == null) {
+                    minuteMetric = newMinuteMetric();
+                    rollingCounterInMinute = minuteMetric;
+                }
+            }
+        }
+        return minuteMetric;
+    }
+
     @Override
     public Map<Long, MetricNode> metrics() {
         long currentTime = TimeUtil.currentTimeMillis();
         currentTime = currentTime - currentTime % 1000;
         Map<Long, MetricNode> metrics = new ConcurrentHashMap<Long, MetricNode>();
-        List<MetricNode> nodesOfEverySecond = rollingCounterInMinute.details();
+        List<MetricNode> nodesOfEverySecond = minuteMetric().details();
         long newLastFetchTime = lastFetchTime;
         for (MetricNode node : nodesOfEverySecond) {
             if (node.getTimestamp() > lastFetchTime && node.getTimestamp() < currentTime) {
@@ -75,7 +163,32 @@ public class StatisticNode implements Node {
 
     @Override
     public void reset() {
-        rollingCounterInSecond = new ArrayMetric(1000 / SampleCountProperty.SAMPLE_COUNT, IntervalProperty.INTERVAL);
+        Metric metric = rollingCounterInSecond;
+        rollingCounterInSecond = newSecondMetric(metric.getWindowLengthInMs(), metric.getIntervalInMs() / 1000);
+    }
+
+    /**
+     * Change the layout of the second-level sliding window of this node. Unlike {@link #reset()}, counts of the
+     * current window are carried over to the new one, see {@link Metric#resize(int, int)}. Nothing happens if
+     * the layout is unchanged.
+     *
+     * @param windowLengthInMs a single window bucket's time length in milliseconds.
+     * @param intervalInSec    the total time span of the sliding window in seconds.
+     */
+    public synchronized void resizeWindow(int windowLengthInMs, int intervalInSec) {
+        Metric metric = rollingCounterInSecond;
+        if (metric.getWindowLengthInMs() == windowLengthInMs && metric.getIntervalInMs() == intervalInSec * 1000) {
+            return;
+        }
+        rollingCounterInSecond = metric.resize(windowLengthInMs, intervalInSec);
+    }
+
+    public int getWindowLengthInMs() {
+        return rollingCounterInSecond.getWindowLengthInMs();
+    }
+
+    public int getWindowIntervalInSec() {
+        return rollingCounterInSecond.getIntervalInMs() / 1000;
     }
 
     /**
@@ -84,28 +197,30 @@ public class StatisticNode implements Node {
      */
     @Override
     public long totalRequest() {
-        long totalRequest = rollingCounterInMinute.pass() + rollingCounterInMinute.block();
+        Metric totals = totalsMetric();
+        long totalRequest = totals.pass() + totals.block();
         return totalRequest;
     }
 
     @Override
     public long blockRequest() {
-        return rollingCounterInMinute.block();
+        return totalsMetric().block();
     }
 
     @Override
     public long blockQps() {
-        return rollingCounterInSecond.block() / IntervalProperty.INTERVAL;
+        Metric metric = rollingCounterInSecond;
+        return metric.block() * 1000 / metric.getIntervalInMs();
     }
 
     @Override
     public long previousBlockQps() {
-        return this.rollingCounterInMinute.previousWindowBlock();
+        return lastSecondsMetric().previousWindowBlock();
     }
 
     @Override
     public long previousPassQps() {
-        return this.rollingCounterInMinute.previousWindowPass();
+        return lastSecondsMetric().previousWindowPass();
     }
 
     @Override
@@ -115,32 +230,36 @@ public class StatisticNode implements Node {
 
     @Override
     public long totalSuccess() {
-        return rollingCounterInMinute.success();
+        return totalsMetric().success();
     }
 
     @Override
     public long exceptionQps() {
-        return rollingCounterInSecond.exception() / IntervalProperty.INTERVAL;
+        Metric metric = rollingCounterInSecond;
+        return metric.exception() * 1000 / metric.getIntervalInMs();
     }
 
     @Override
     public long totalException() {
-        return rollingCounterInMinute.exception();
+        return totalsMetric().exception();
     }
 
     @Override
     public long passQps() {
-        return rollingCounterInSecond.pass() / IntervalProperty.INTERVAL;
+        Metric metric = rollingCounterInSecond;
+        return metric.pass() * 1000 / metric.getIntervalInMs();
     }
 
     @Override
     public long successQps() {
-        return rollingCounterInSecond.success() / IntervalProperty.INTERVAL;
+        Metric metric = rollingCounterInSecond;
+        return metric.success() * 1000 / metric.getIntervalInMs();
     }
 
     @Override
     public long maxSuccessQps() {
-        return rollingCounterInSecond.maxSuccess() * SampleCountProperty.SAMPLE_COUNT;
+        Metric metric = rollingCounterInSecond;
+        return metric.maxSuccess() * 1000 / metric.getWindowLengthInMs();
     }
 
     @Override
@@ -150,12 +269,43 @@ public class StatisticNode implements Node {
             return 0;
         }
 
-        return rollingCounterInSecond.rt() / successCount;
+        return RtUtil.toMillis(rollingCounterInSecond.rt() / successCount);
     }
 
     @Override
     public long minRt() {
-        return rollingCounterInSecond.minRt();
+        return Math.max(1, RtUtil.toMillis(rollingCounterInSecond.minRt()));
+    }
+
+    @Override
+    public long avgRtInMicros() {
+        long successCount = rollingCounterInSecond.success();
+        if (successCount == 0) {
+            return 0;
+        }
+
+        return RtUtil.toMicros(rollingCounterInSecond.rt()) / successCount;
+    }
+
+    @Override
+    public long minRtInMicros() {
+        return Math.max(1, RtUtil.toMicros(rollingCounterInSecond.minRt()));
+    }
+
+    @Override
+    public long rtPercentile(double percentile) {
+        long rt = rollingCounterInSecond.rtPercentile(percentile);
+        return rt < 0 ? avgRt() : RtUtil.toMillis(rt);
+    }
+
+    /**
+     * Get all second-level statistics aggregated in a single pass over the sliding window.
+     * Prefer this to calling several QPS/RT getters one by one on the hot path.
+     *
+     * @return snapshot of the second-level statistics
+     */
+    public MetricSnapshot snapshotInSecond() {
+        return rollingCounterInSecond.snapshot();
     }
 
     @Override
@@ -165,30 +315,81 @@ public class StatisticNode implements Node {
 
     @Override
     public void addPassRequest() {
-        rollingCounterInSecond.addPass();
-        rollingCounterInMinute.addPass();
+        addPassRequest(1);
+    }
+
+    @Override
+    public void addPassRequest(int count) {
+        rollingCounterInSecond.addPass(count);
+        if (rollingCounterInMinuteTotals != null) {
+            rollingCounterInMinuteTotals.addPass(count);
+            Metric lastSeconds = rollingCounterInLastSeconds;
+            if (lastSeconds != null) {
+                lastSeconds.addPass(count);
+            }
+        }
+        Metric minuteMetric = rollingCounterInMinute;
+        if (minuteMetric != null) {
+            minuteMetric.addPass(count);
+        }
     }
 
     @Override
     public void rt(long rt) {
-        rollingCounterInSecond.addSuccess();
-        rollingCounterInSecond.addRT(rt);
+        rt(rt, 1);
+    }
 
-        rollingCounterInMinute.addSuccess();
-        rollingCounterInMinute.addRT(rt);
+    @Override
+    public void rt(long rt, int count) {
+        rollingCounterInSecond.addSuccess(count);
+        rollingCounterInSecond.addRT(rt, count);
+        if (rollingCounterInMinuteTotals != null) {
+            rollingCounterInMinuteTotals.addSuccess(count);
+        }
+
+        Metric minuteMetric = rollingCounterInMinute;
+        if (minuteMetric != null) {
+            minuteMetric.addSuccess(count);
+            minuteMetric.addRT(rt, count);
+        }
     }
 
     @Override
     public void increaseBlockQps() {
-        rollingCounterInSecond.addBlock();
-        rollingCounterInMinute.addBlock();
+        increaseBlockQps(1);
+    }
+
+    @Override
+    public void increaseBlockQps(int count) {
+        rollingCounterInSecond.addBlock(count);
+        if (rollingCounterInMinuteTotals != null) {
+            rollingCounterInMinuteTotals.addBlock(count);
+            Metric lastSeconds = rollingCounterInLastSeconds;
+            if (lastSeconds != null) {
+                lastSeconds.addBlock(count);
+            }
+        }
+        Metric minuteMetric = rollingCounterInMinute;
+        if (minuteMetric != null) {
+            minuteMetric.addBlock(count);
+        }
     }
 
     @Override
     public void increaseExceptionQps() {
-        rollingCounterInSecond.addException();
-        rollingCounterInMinute.addException();
+        increaseExceptionQps(1);
+    }
 
+    @Override
+    public void increaseExceptionQps(int count) {
+        rollingCounterInSecond.addException(count);
+        if (rollingCounterInMinuteTotals != null) {
+            rollingCounterInMinuteTotals.addException(count);
+        }
+        Metric minuteMetric = rollingCounterInMinute;
+        if (minuteMetric != null) {
+            minuteMetric.addException(count);
+        }
     }
 
     @Override
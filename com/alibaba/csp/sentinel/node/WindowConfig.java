@@ -0,0 +1,111 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.node;
+
+/**
+ * <p>
+ * Layout of the second-level sliding window of a specific resource, overriding the global
+ * {@link SampleCountProperty#SAMPLE_COUNT} and {@link IntervalProperty#INTERVAL}.
+ * </p>
+ * <p>
+ * For example, a window of 100 ms and an interval of 1 second gives 10 fine buckets for a hot resource,
+ * while a window of 5000 ms and an interval of 10 seconds gives 2 cheap buckets for a rarely called one.
+ * The interval must be a multiple of the window length.
+ * </p>
+ *
+ * @see WindowConfigManager
+ */
+public class WindowConfig {
+
+    /**
+     * Resource name.
+     */
+    private String resource;
+
+    /**
+     * Time length of a single bucket in milliseconds.
+     */
+    private int windowLengthInMs;
+
+    /**
+     * Total time span of the sliding window in seconds.
+     */
+    private int intervalInSec;
+
+    public WindowConfig() {}
+
+    public WindowConfig(String resource, int windowLengthInMs, int intervalInSec) {
+        this.resource = resource;
+        this.windowLengthInMs = windowLengthInMs;
+        this.intervalInSec = intervalInSec;
+    }
+
+    public String getResource() {
+        return resource;
+    }
+
+    public WindowConfig setResource(String resource) {
+        this.resource = resource;
+        return this;
+    }
+
+    public int getWindowLengthInMs() {
+        return windowLengthInMs;
+    }
+
+    public WindowConfig setWindowLengthInMs(int windowLengthInMs) {
+        this.windowLengthInMs = windowLengthInMs;
+        return this;
+    }
+
+    public int getIntervalInSec() {
+        return intervalInSec;
+    }
+
+    public WindowConfig setIntervalInSec(int intervalInSec) {
+        this.intervalInSec = intervalInSec;
+        return this;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) { return true; }
+        if (!(o instanceof WindowConfig)) { return false; }
+
+        WindowConfig that = (WindowConfig)o;
+
+        if (windowLengthInMs != that.windowLengthInMs) { return false; }
+        if (intervalInSec != that.intervalInSec) { return false; }
+        return resource != null ? resource.equals(that.resource) : that.resource == null;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = resource != null ? resource.hashCode() : 0;
+        result = 31 * result + windowLengthInMs;
+        result = 31 * result + intervalInSec;
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "WindowConfig{" +
+            "resource=" + resource +
+            ", windowLengthInMs=" + windowLengthInMs +
+            ", intervalInSec=" + intervalInSec +
+            '}';
+    }
+}
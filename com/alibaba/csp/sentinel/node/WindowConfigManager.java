@@ -0,0 +1,170 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.node;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.alibaba.csp.sentinel.Constants;
+import com.alibaba.csp.sentinel.log.RecordLog;
+import com.alibaba.csp.sentinel.property.DynamicSentinelProperty;
+import com.alibaba.csp.sentinel.property.PropertyListener;
+import com.alibaba.csp.sentinel.property.SentinelProperty;
+import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
+import com.alibaba.csp.sentinel.slots.clusterbuilder.ClusterBuilderSlot;
+import com.alibaba.csp.sentinel.util.StringUtil;
+
+/**
+ * <p>
+ * Manager for per-resource {@link WindowConfig}s. Resources without a config use the global
+ * {@link SampleCountProperty#SAMPLE_COUNT} and {@link IntervalProperty#INTERVAL}.
+ * </p>
+ * <p>
+ * When the configs or the global properties change, the {@link ClusterNode}, origin nodes and
+ * {@link DefaultNode}s of every affected resource are resized in place, carrying their recent counts
+ * over to the new layout instead of dropping them.
+ * </p>
+ */
+public final class WindowConfigManager {
+
+    /**
+     * Replaced as a whole on every load, so that a node created meanwhile sees either the old or the new configs.
+     */
+    private static volatile Map<String, WindowConfig> windowConfigs = Collections.emptyMap();
+
+    private static final WindowPropertyListener listener = new WindowPropertyListener();
+
+    private static SentinelProperty<List<WindowConfig>> currentProperty
+        = new DynamicSentinelProperty<List<WindowConfig>>();
+
+    static {
+        currentProperty.addListener(listener);
+    }
+
+    public static void register2Property(SentinelProperty<List<WindowConfig>> property) {
+        synchronized (listener) {
+            if (currentProperty != null) {
+                currentProperty.removeListener(listener);
+            }
+            property.addListener(listener);
+            currentProperty = property;
+            RecordLog.info("[WindowConfigManager] Registering new property to window config manager");
+        }
+    }
+
+    /**
+     * Load the window configs, replacing all previous ones.
+     *
+     * @param configs list of window configs
+     */
+    public static void loadConfigs(List<WindowConfig> configs) {
+        currentProperty.updateValue(configs);
+    }
+
+    /**
+     * Get a copy of the configs.
+     *
+     * @return a new copy of the configs.
+     */
+    public static List<WindowConfig> getConfigs() {
+        return new ArrayList<WindowConfig>(windowConfigs.values());
+    }
+
+    /**
+     * Resize provided node to the window layout of the resource.
+     *
+     * @param node     the node to resize
+     * @param resource resource name of the node
+     */
+    public static void applyWindow(StatisticNode node, String resource) {
+        WindowConfig config = resource == null ? null : windowConfigs.get(resource);
+        if (config == null) {
+            node.resizeWindow(1000 / SampleCountProperty.SAMPLE_COUNT, IntervalProperty.INTERVAL);
+        } else {
+            node.resizeWindow(config.getWindowLengthInMs(), config.getIntervalInSec());
+        }
+    }
+
+    /**
+     * Resize all existing nodes to the current window layout of their resources.
+     */
+    public static void refreshNodes() {
+        applyWindow(Constants.ENTRY_NODE, null);
+        for (Map.Entry<ResourceWrapper, ClusterNode> entry : ClusterBuilderSlot.getClusterNodeMap().entrySet()) {
+            ClusterNode clusterNode = entry.getValue();
+            applyWindow(clusterNode, entry.getKey().getName());
+            for (StatisticNode originNode : clusterNode.getOriginCountMap().values()) {
+                originNode.resizeWindow(clusterNode.getWindowLengthInMs(), clusterNode.getWindowIntervalInSec());
+            }
+        }
+        refreshTree(Constants.ROOT, new HashSet<Node>());
+    }
+
+    private static void refreshTree(DefaultNode node, Set<Node> visited) {
+        if (!visited.add(node)) {
+            return;
+        }
+        applyWindow(node, node.getId().getName());
+        for (Node child : node.getChildList()) {
+            if (child instanceof DefaultNode) {
+                refreshTree((DefaultNode)child, visited);
+            }
+        }
+    }
+
+    static boolean isValidConfig(WindowConfig config) {
+        return config != null && !StringUtil.isBlank(config.getResource())
+            && config.getWindowLengthInMs() > 0 && config.getIntervalInSec() > 0
+            && (config.getIntervalInSec() * 1000) % config.getWindowLengthInMs() == 0;
+    }
+
+    private static class WindowPropertyListener implements PropertyListener<List<WindowConfig>> {
+
+        @Override
+        public void configUpdate(List<WindowConfig> value) {
+            loadWindowConf(value);
+            RecordLog.info("[WindowConfigManager] Window configs received: " + windowConfigs);
+        }
+
+        @Override
+        public void configLoad(List<WindowConfig> value) {
+            loadWindowConf(value);
+            RecordLog.info("[WindowConfigManager] Window configs loaded: " + windowConfigs);
+        }
+
+        private void loadWindowConf(List<WindowConfig> list) {
+            Map<String, WindowConfig> newConfigs = new HashMap<String, WindowConfig>();
+            if (list != null) {
+                for (WindowConfig config : list) {
+                    if (!isValidConfig(config)) {
+                        RecordLog.warn("[WindowConfigManager] Ignoring invalid window config: " + config);
+                        continue;
+                    }
+                    newConfigs.put(config.getResource(), config);
+                }
+            }
+            windowConfigs = Collections.unmodifiableMap(newConfigs);
+            refreshNodes();
+        }
+    }
+
+    private WindowConfigManager() {}
+}
@@ -16,6 +16,7 @@
 package com.alibaba.csp.sentinel.slotchain;
 
 import com.alibaba.csp.sentinel.context.Context;
+import com.alibaba.csp.sentinel.slots.block.BlockException;
 
 /**
  * AbstractLinkedProcessorSlot是一个链表对象
@@ -29,7 +30,10 @@ import com.alibaba.csp.sentinel.context.Context;
 public abstract class AbstractLinkedProcessorSlot<T> implements ProcessorSlot<T> {
 
 
-    private AbstractLinkedProcessorSlot<?> next = null;
+    /**
+     * Volatile, as the chain may be relinked while invocations go through it, see {@link RuleAwareSlot}.
+     */
+    private volatile AbstractLinkedProcessorSlot<?> next = null;
 
     @Override
     public void fireEntry(Context context, ResourceWrapper resourceWrapper, Object obj, int count, Object... args)
@@ -46,6 +50,57 @@ public abstract class AbstractLinkedProcessorSlot<T> implements ProcessorSlot<T>
         entry(context, resourceWrapper, t, count, args);
     }
 
+    /**
+     * Same as {@link #entry(Context, ResourceWrapper, Object, int, Object...)}, but a block is returned instead of
+     * thrown. The built-in slots override this to return the block of their own rules, or else hand on the result
+     * of {@link #fireTryEntry(Context, ResourceWrapper, Object, int, Object...)}. A slot which only implements
+     * {@code entry} is run through it here, so a block thrown by it or the slots after it is caught.
+     *
+     * @param context         current {@link Context}
+     * @param resourceWrapper current resource
+     * @param t               generics parameter, usually is a {@link com.alibaba.csp.sentinel.node.Node}
+     * @param count           tokens needed
+     * @param args            parameters of the original call
+     * @return the block exception if blocked, otherwise null
+     * @throws Throwable unexpected error
+     */
+    public BlockException tryEntry(Context context, ResourceWrapper resourceWrapper, T t, int count, Object... args)
+        throws Throwable {
+        try {
+            entry(context, resourceWrapper, t, count, args);
+            return null;
+        } catch (BlockException e) {
+            return e;
+        }
+    }
+
+    /**
+     * Same as {@link #fireEntry(Context, ResourceWrapper, Object, int, Object...)}, but runs the next slot by
+     * {@link #tryEntry(Context, ResourceWrapper, Object, int, Object...)} and returns its result.
+     *
+     * @param context         current {@link Context}
+     * @param resourceWrapper current resource
+     * @param obj             relevant object (e.g. Node)
+     * @param count           tokens needed
+     * @param args            parameters of the original call
+     * @return the block exception if blocked, otherwise null
+     * @throws Throwable unexpected error
+     */
+    public BlockException fireTryEntry(Context context, ResourceWrapper resourceWrapper, Object obj, int count,
+                                       Object... args) throws Throwable {
+        if (next != null) {
+            return next.transformTryEntry(context, resourceWrapper, obj, count, args);
+        }
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    BlockException transformTryEntry(Context context, ResourceWrapper resourceWrapper, Object o, int count,
+                                     Object... args) throws Throwable {
+        T t = (T)o;
+        return tryEntry(context, resourceWrapper, t, count, args);
+    }
+
     @Override
     public void fireExit(Context context, ResourceWrapper resourceWrapper, int count, Object... args) {
         if (next != null) {
@@ -15,7 +15,11 @@
  */
 package com.alibaba.csp.sentinel.slotchain;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import com.alibaba.csp.sentinel.context.Context;
+import com.alibaba.csp.sentinel.slots.block.BlockException;
 
 /**
  * @author qinan.qn
@@ -31,6 +35,12 @@ public class DefaultProcessorSlotChain extends ProcessorSlotChain {
             super.fireEntry(context, resourceWrapper, t, count, args);
         }
 
+        @Override
+        public BlockException tryEntry(Context context, ResourceWrapper resourceWrapper, Object t, int count,
+                                       Object... args) throws Throwable {
+            return super.fireTryEntry(context, resourceWrapper, t, count, args);
+        }
+
         @Override
         public void exit(Context context, ResourceWrapper resourceWrapper, int count, Object... args) {
             super.fireExit(context, resourceWrapper, count, args);
@@ -39,19 +49,50 @@ public class DefaultProcessorSlotChain extends ProcessorSlotChain {
     };
     AbstractLinkedProcessorSlot<?> end = first;
 
+    /**
+     * All added slots in order, including those left out by {@link #compile(ResourceWrapper)}.
+     */
+    private final List<AbstractLinkedProcessorSlot<?>> slots = new ArrayList<AbstractLinkedProcessorSlot<?>>();
+
     @Override
-    public void addFirst(AbstractLinkedProcessorSlot<?> protocolProcessor) {
+    public synchronized void addFirst(AbstractLinkedProcessorSlot<?> protocolProcessor) {
         protocolProcessor.setNext(first.getNext());
         first.setNext(protocolProcessor);
         if (end == first) {
             end = protocolProcessor;
         }
+        slots.add(0, protocolProcessor);
     }
 
     @Override
-    public void addLast(AbstractLinkedProcessorSlot<?> protocolProcessor) {
+    public synchronized void addLast(AbstractLinkedProcessorSlot<?> protocolProcessor) {
         end.setNext(protocolProcessor);
         end = protocolProcessor;
+        slots.add(protocolProcessor);
+    }
+
+    /**
+     * Relink the slots, leaving out the {@link RuleAwareSlot}s with nothing to check. The links are set from
+     * the tail, so that a slot is linked into the chain only after its own next link is set. An invocation going
+     * through a dropped slot meanwhile just follows its former links.
+     *
+     * @param resourceWrapper the resource of this chain
+     */
+    @Override
+    public synchronized void compile(ResourceWrapper resourceWrapper) {
+        List<AbstractLinkedProcessorSlot<?>> active = new ArrayList<AbstractLinkedProcessorSlot<?>>(slots.size());
+        for (AbstractLinkedProcessorSlot<?> slot : slots) {
+            if (!(slot instanceof RuleAwareSlot) || ((RuleAwareSlot)slot).bindRules(resourceWrapper)) {
+                active.add(slot);
+            }
+        }
+        AbstractLinkedProcessorSlot<?> next = null;
+        for (int i = active.size() - 1; i >= 0; i--) {
+            active.get(i).setNext(next);
+            next = active.get(i);
+        }
+        first.setNext(next);
+        end = active.isEmpty() ? first : active.get(active.size() - 1);
     }
 
     /**
@@ -87,6 +128,16 @@ public class DefaultProcessorSlotChain extends ProcessorSlotChain {
         first.transformEntry(context, resourceWrapper, t, count, args);
     }
 
+    /**
+     * Run the slots by their {@code tryEntry}, so that the built-in slots hand a block back through the chain
+     * without throwing it.
+     */
+    @Override
+    public BlockException tryEntry(Context context, ResourceWrapper resourceWrapper, Object t, int count,
+                                   Object... args) throws Throwable {
+        return first.transformTryEntry(context, resourceWrapper, t, count, args);
+    }
+
     @Override
     public void exit(Context context, ResourceWrapper resourceWrapper, int count, Object... args) {
         first.exit(context, resourceWrapper, count, args);
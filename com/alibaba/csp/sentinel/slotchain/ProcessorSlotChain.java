@@ -35,4 +35,14 @@ public abstract class ProcessorSlotChain extends AbstractLinkedProcessorSlot<Obj
      * @param protocolProcessor processor to be added.
      */
     public abstract void addLast(AbstractLinkedProcessorSlot<?> protocolProcessor);
+
+    /**
+     * Bind the {@link RuleAwareSlot}s of this chain to current rules of provided resource, and leave out
+     * those with nothing to check. Invoked when the chain is created and whenever rules change.
+     * Does nothing by default.
+     *
+     * @param resourceWrapper the resource of this chain
+     */
+    public void compile(ResourceWrapper resourceWrapper) {
+    }
 }
@@ -0,0 +1,130 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slotchain;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import com.alibaba.csp.sentinel.EntryType;
+import com.alibaba.csp.sentinel.node.ClusterNode;
+
+/**
+ * <p>
+ * A resource known to the {@link ResourceRegistry}, with its dense integer id and everything shared by all
+ * invocations of it: the {@link ProcessorSlotChain} and the {@link ClusterNode}.
+ * </p>
+ * <p>
+ * Same as {@link ResourceWrapper#equals(Object)}, a resource is identified by its name only.
+ * </p>
+ *
+ * @see ResourceRegistry
+ */
+public final class RegisteredResource {
+
+    private static final EntryType[] ENTRY_TYPES = EntryType.values();
+
+    private final int id;
+    private final ResourceWrapper resource;
+    private final AtomicReferenceArray<StringResourceWrapper> stringWrappers
+        = new AtomicReferenceArray<StringResourceWrapper>(ENTRY_TYPES.length);
+
+    private volatile ProcessorSlotChain chain;
+    private volatile ClusterNode clusterNode;
+    private volatile int idleMinutes;
+
+    RegisteredResource(int id, ResourceWrapper resource) {
+        this.id = id;
+        this.resource = resource;
+        if (resource instanceof StringResourceWrapper) {
+            stringWrappers.set(resource.getType().ordinal(), (StringResourceWrapper)resource);
+        }
+    }
+
+    /**
+     * Get the id of this resource, which ranges from 0 to {@link ResourceRegistry#size()} - 1.
+     *
+     * @return the resource id
+     */
+    public int getId() {
+        return id;
+    }
+
+    public String getName() {
+        return resource.getName();
+    }
+
+    /**
+     * Get the wrapper this resource was registered with.
+     *
+     * @return the first wrapper of this resource
+     */
+    public ResourceWrapper getResource() {
+        return resource;
+    }
+
+    /**
+     * Get a shared {@link StringResourceWrapper} of this resource name with provided type, so that entries
+     * by name need not create one per call.
+     *
+     * @param type the entry type
+     * @return the shared wrapper
+     */
+    public StringResourceWrapper stringWrapper(EntryType type) {
+        StringResourceWrapper wrapper = stringWrappers.get(type.ordinal());
+        if (wrapper == null) {
+            stringWrappers.compareAndSet(type.ordinal(), null, new StringResourceWrapper(getName(), type));
+            wrapper = stringWrappers.get(type.ordinal());
+        }
+        return wrapper;
+    }
+
+    public ProcessorSlotChain getChain() {
+        return chain;
+    }
+
+    public void setChain(ProcessorSlotChain chain) {
+        this.chain = chain;
+    }
+
+    public ClusterNode getClusterNode() {
+        return clusterNode;
+    }
+
+    public void setClusterNode(ClusterNode clusterNode) {
+        this.clusterNode = clusterNode;
+    }
+
+    /**
+     * Get how many minutes in a row this resource has been seen idle, see
+     * {@link com.alibaba.csp.sentinel.ResourceEvictor}.
+     *
+     * @return the idle minutes
+     */
+    public int getIdleMinutes() {
+        return idleMinutes;
+    }
+
+    public void setIdleMinutes(int idleMinutes) {
+        this.idleMinutes = idleMinutes;
+    }
+
+    @Override
+    public String toString() {
+        return "RegisteredResource{" +
+            "id=" + id +
+            ", name='" + getName() + '\'' +
+            '}';
+    }
+}
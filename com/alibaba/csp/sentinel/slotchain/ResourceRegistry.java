@@ -0,0 +1,195 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slotchain;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * <p>
+ * Registry of all resources, giving each distinct resource name a dense integer id.
+ * </p>
+ * <p>
+ * Lookups by name are a single {@link ConcurrentHashMap#get(Object)} on the name itself, so that no
+ * {@link ResourceWrapper} has to be created for them, and lookups by id are two volatile array reads. Registering
+ * a new resource only appends it: ids are kept in fixed-size chunks which are never copied, so the cost
+ * of registration does not grow with the number of resources.
+ * </p>
+ * <p>
+ * Ids of unregistered resources are reused by later registrations, so a lookup by id may return null
+ * for any id below {@link #size()}.
+ * </p>
+ *
+ * @see RegisteredResource
+ */
+public final class ResourceRegistry {
+
+    private static final int CHUNK_BITS = 10;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+    private static final int MAX_CHUNKS = 1024;
+
+    /**
+     * The largest number of resources the registry can hold.
+     */
+    public static final int MAX_SIZE = CHUNK_SIZE * MAX_CHUNKS;
+
+    private static final ConcurrentHashMap<String, RegisteredResource> BY_NAME
+        = new ConcurrentHashMap<String, RegisteredResource>();
+    /**
+     * Slots are written with volatile semantics, so that readers by id, which do not hold the lock, see a
+     * reused id with its new resource.
+     */
+    private static final AtomicReferenceArray<AtomicReferenceArray<RegisteredResource>> CHUNKS
+        = new AtomicReferenceArray<AtomicReferenceArray<RegisteredResource>>(MAX_CHUNKS);
+
+    private static volatile int size = 0;
+    private static final Deque<Integer> FREE_IDS = new ArrayDeque<Integer>();
+
+    private static final Object LOCK = new Object();
+    private static final Object COMPILE_LOCK = new Object();
+
+    /**
+     * Get a registered resource by its name.
+     *
+     * @param name resource name
+     * @return the registered resource, or null if not registered
+     */
+    public static RegisteredResource get(String name) {
+        if (name == null) {
+            return null;
+        }
+        return BY_NAME.get(name);
+    }
+
+    /**
+     * Get a registered resource by its id.
+     *
+     * @param id resource id
+     * @return the registered resource, or null if no resource has the id
+     */
+    public static RegisteredResource get(int id) {
+        if (id < 0 || id >= size) {
+            return null;
+        }
+        return CHUNKS.get(id >>> CHUNK_BITS).get(id & CHUNK_MASK);
+    }
+
+    /**
+     * Get the registered resource of provided wrapper, registering it first if absent.
+     *
+     * @param resourceWrapper the resource
+     * @return the registered resource, or null if the registry is full
+     */
+    public static RegisteredResource register(ResourceWrapper resourceWrapper) {
+        RegisteredResource resource = BY_NAME.get(resourceWrapper.getName());
+        if (resource != null) {
+            return resource;
+        }
+        synchronized (LOCK) {
+            resource = BY_NAME.get(resourceWrapper.getName());
+            if (resource != null) {
+                return resource;
+            }
+            Integer freeId = FREE_IDS.poll();
+            int id = freeId == null ? size : freeId;
+            if (id >= MAX_SIZE) {
+                return null;
+            }
+            AtomicReferenceArray<RegisteredResource> chunk = CHUNKS.get(id >>> CHUNK_BITS);
+            if (chunk == null) {
+                chunk = new AtomicReferenceArray<RegisteredResource>(CHUNK_SIZE);
+                CHUNKS.set(id >>> CHUNK_BITS, chunk);
+            }
+            resource = new RegisteredResource(id, resourceWrapper);
+            chunk.set(id & CHUNK_MASK, resource);
+            if (freeId == null) {
+                // Publish the slot before the size, so that readers of the new size always see it.
+                size = id + 1;
+            }
+            BY_NAME.put(resourceWrapper.getName(), resource);
+            return resource;
+        }
+    }
+
+    /**
+     * Remove provided resource from the registry, and drop its slot chain and cluster node. Holders of
+     * the removed instance see a null chain, and the next entry of the resource registers it again.
+     *
+     * @param resource the registered resource
+     * @return true if removed, false if the resource is no longer registered
+     */
+    public static boolean unregister(RegisteredResource resource) {
+        synchronized (LOCK) {
+            if (!BY_NAME.remove(resource.getName(), resource)) {
+                return false;
+            }
+            int id = resource.getId();
+            CHUNKS.get(id >>> CHUNK_BITS).set(id & CHUNK_MASK, null);
+            FREE_IDS.push(id);
+        }
+        resource.setChain(null);
+        resource.setClusterNode(null);
+        return true;
+    }
+
+    /**
+     * Compile the slot chain of provided resource against current rules, see
+     * {@link ProcessorSlotChain#compile(ResourceWrapper)}. Must be invoked after the chain is set to the resource.
+     *
+     * @param resource the registered resource
+     */
+    public static void compileChain(RegisteredResource resource) {
+        // Compiling under the same lock as recompileChains() ensures a new chain never misses a rule change:
+        // either it is compiled after the change, or it is already set when all chains are recompiled.
+        synchronized (COMPILE_LOCK) {
+            ProcessorSlotChain chain = resource.getChain();
+            if (chain != null) {
+                chain.compile(resource.getResource());
+            }
+        }
+    }
+
+    /**
+     * Compile the slot chains of all resources against current rules. Rule managers invoke this after
+     * loading new rules.
+     */
+    public static void recompileChains() {
+        synchronized (COMPILE_LOCK) {
+            for (int id = 0; id < size; id++) {
+                RegisteredResource resource = get(id);
+                ProcessorSlotChain chain = resource == null ? null : resource.getChain();
+                if (chain != null) {
+                    chain.compile(resource.getResource());
+                }
+            }
+        }
+    }
+
+    /**
+     * Get the upper bound of resource ids, which is the number of registered resources if none has been
+     * unregistered.
+     *
+     * @return the upper bound of resource ids
+     */
+    public static int size() {
+        return size;
+    }
+
+    private ResourceRegistry() {}
+}
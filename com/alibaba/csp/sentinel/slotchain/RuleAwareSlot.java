@@ -0,0 +1,38 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slotchain;
+
+/**
+ * <p>
+ * A slot which only checks rules. Such a slot is bound to the rules of the resource of its chain whenever
+ * the chain is compiled, see {@link ProcessorSlotChain#compile(ResourceWrapper)}, and is left out of the
+ * chain while the resource has no rules for it.
+ * </p>
+ * <p>
+ * A rule-aware slot must do nothing on exit but pass it on, since an invocation which entered before the
+ * slot was left out may exit after it.
+ * </p>
+ */
+public interface RuleAwareSlot {
+
+    /**
+     * Bind current rules of provided resource to this slot.
+     *
+     * @param resourceWrapper the resource of the chain
+     * @return true if there is anything for this slot to check, otherwise the slot is left out of the chain
+     */
+    boolean bindRules(ResourceWrapper resourceWrapper);
+}
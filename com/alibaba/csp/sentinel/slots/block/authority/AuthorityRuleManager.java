@@ -16,11 +16,14 @@
 package com.alibaba.csp.sentinel.slots.block.authority;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 
 import com.alibaba.csp.sentinel.log.RecordLog;
+import com.alibaba.csp.sentinel.slotchain.ResourceRegistry;
 import com.alibaba.csp.sentinel.slots.block.RuleConstant;
 import com.alibaba.csp.sentinel.util.StringUtil;
 import com.alibaba.csp.sentinel.property.DynamicSentinelProperty;
@@ -36,8 +39,13 @@ import com.alibaba.csp.sentinel.property.SentinelProperty;
  */
 public final class AuthorityRuleManager {
 
-    private static Map<String, List<AuthorityRule>> authorityRules
-        = new ConcurrentHashMap<String, List<AuthorityRule>>();
+    private static final AuthorityRule[] NO_RULES = new AuthorityRule[0];
+
+    /**
+     * Rules of each resource. The map and the arrays in it are never modified once published: every update
+     * builds a new map and swaps it in, so readers always see a complete rule set.
+     */
+    private static volatile Map<String, AuthorityRule[]> authorityRules = Collections.emptyMap();
 
     final static RulePropertyListener listener = new RulePropertyListener();
 
@@ -79,11 +87,8 @@ public final class AuthorityRuleManager {
      */
     public static List<AuthorityRule> getRules() {
         List<AuthorityRule> rules = new ArrayList<AuthorityRule>();
-        if (authorityRules == null) {
-            return rules;
-        }
-        for (Map.Entry<String, List<AuthorityRule>> entry : authorityRules.entrySet()) {
-            rules.addAll(entry.getValue());
+        for (AuthorityRule[] resourceRules : authorityRules.values()) {
+            rules.addAll(Arrays.asList(resourceRules));
         }
         return rules;
     }
@@ -92,20 +97,16 @@ public final class AuthorityRuleManager {
 
         @Override
         public void configUpdate(List<AuthorityRule> conf) {
-            Map<String, List<AuthorityRule>> rules = loadAuthorityConf(conf);
-
-            authorityRules.clear();
-            if (rules != null) {
-                authorityRules.putAll(rules);
-            }
-            RecordLog.info("[AuthorityRuleManager] Authority rules received: " + authorityRules);
+            authorityRules = loadAuthorityConf(conf);
+            ResourceRegistry.recompileChains();
+            RecordLog.info("[AuthorityRuleManager] Authority rules received: " + getRules());
         }
 
-        private Map<String, List<AuthorityRule>> loadAuthorityConf(List<AuthorityRule> list) {
-            Map<String, List<AuthorityRule>> newRuleMap = new ConcurrentHashMap<String, List<AuthorityRule>>();
+        private Map<String, AuthorityRule[]> loadAuthorityConf(List<AuthorityRule> list) {
+            Map<String, AuthorityRule[]> newRuleMap = new HashMap<String, AuthorityRule[]>();
 
             if (list == null || list.isEmpty()) {
-                return newRuleMap;
+                return Collections.emptyMap();
             }
 
             for (AuthorityRule rule : list) {
@@ -119,12 +120,9 @@ public final class AuthorityRuleManager {
                 }
 
                 String identity = rule.getResource();
-                List<AuthorityRule> ruleM = newRuleMap.get(identity);
                 // putIfAbsent
-                if (ruleM == null) {
-                    ruleM = new ArrayList<AuthorityRule>();
-                    ruleM.add(rule);
-                    newRuleMap.put(identity, ruleM);
+                if (!newRuleMap.containsKey(identity)) {
+                    newRuleMap.put(identity, new AuthorityRule[] {rule});
                 } else {
                     // One resource should only have at most one authority rule, so just ignore redundant rules.
                     RecordLog.warn("[AuthorityRuleManager] Ignoring redundant rule: " + rule.toString());
@@ -136,18 +134,22 @@ public final class AuthorityRuleManager {
 
         @Override
         public void configLoad(List<AuthorityRule> value) {
-            Map<String, List<AuthorityRule>> rules = loadAuthorityConf(value);
-
-            authorityRules.clear();
-            if (rules != null) {
-                authorityRules.putAll(rules);
-            }
-            RecordLog.info("[AuthorityRuleManager] Load authority rules: " + authorityRules);
+            authorityRules = loadAuthorityConf(value);
+            ResourceRegistry.recompileChains();
+            RecordLog.info("[AuthorityRuleManager] Load authority rules: " + getRules());
         }
     }
 
-    static Map<String, List<AuthorityRule>> getAuthorityRules() {
-        return authorityRules;
+    /**
+     * Get current authority rules of provided resource, for binding to its {@link AuthoritySlot}. The array
+     * is shared by all readers of current rule set and must not be modified.
+     *
+     * @param resource resource name
+     * @return the rules, empty if none
+     */
+    static AuthorityRule[] getRulesOfResource(String resource) {
+        AuthorityRule[] rules = authorityRules.get(resource);
+        return rules == null ? NO_RULES : rules;
     }
 
     static boolean isValidRule(AuthorityRule rule) {
@@ -15,51 +15,78 @@
  */
 package com.alibaba.csp.sentinel.slots.block.authority;
 
-import java.util.List;
-import java.util.Map;
-
 import com.alibaba.csp.sentinel.context.Context;
 import com.alibaba.csp.sentinel.node.DefaultNode;
 import com.alibaba.csp.sentinel.slotchain.AbstractLinkedProcessorSlot;
 import com.alibaba.csp.sentinel.slotchain.ProcessorSlot;
 import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
+import com.alibaba.csp.sentinel.slotchain.RuleAwareSlot;
+import com.alibaba.csp.sentinel.slots.block.BlockException;
 
 /**
- * A {@link ProcessorSlot} that dedicates to {@link AuthorityRule} checking.
+ * A {@link ProcessorSlot} that dedicates to {@link AuthorityRule} checking. It is left out of the chain while
+ * the resource has no authority rule, see {@link RuleAwareSlot}.
  *
  * @author leyou
  * @author Eric Zhao
  */
-public class AuthoritySlot extends AbstractLinkedProcessorSlot<DefaultNode> {
+public class AuthoritySlot extends AbstractLinkedProcessorSlot<DefaultNode> implements RuleAwareSlot {
+
+    /**
+     * Authority rules of the resource bound by {@link #bindRules(ResourceWrapper)}, or null if not bound.
+     */
+    private volatile AuthorityRule[] rules = null;
+
+    @Override
+    public boolean bindRules(ResourceWrapper resourceWrapper) {
+        AuthorityRule[] rules = AuthorityRuleManager.getRulesOfResource(resourceWrapper.getName());
+        this.rules = rules;
+        return rules.length > 0;
+    }
 
     @Override
     public void entry(Context context, ResourceWrapper resourceWrapper, DefaultNode node, int count, Object... args)
         throws Throwable {
-        checkBlackWhiteAuthority(resourceWrapper, context);
+        AuthorityException e = checkAuthority(context, resourceWrapper);
+        if (e != null) {
+            throw e;
+        }
         fireEntry(context, resourceWrapper, node, count, args);
     }
 
     @Override
-    public void exit(Context context, ResourceWrapper resourceWrapper, int count, Object... args) {
-        fireExit(context, resourceWrapper, count, args);
-    }
-
-    void checkBlackWhiteAuthority(ResourceWrapper resource, Context context) throws AuthorityException {
-        Map<String, List<AuthorityRule>> authorityRules = AuthorityRuleManager.getAuthorityRules();
-
-        if (authorityRules == null) {
-            return;
+    public BlockException tryEntry(Context context, ResourceWrapper resourceWrapper, DefaultNode node, int count,
+                                   Object... args) throws Throwable {
+        AuthorityException e = checkAuthority(context, resourceWrapper);
+        if (e != null) {
+            return e;
         }
+        return fireTryEntry(context, resourceWrapper, node, count, args);
+    }
 
-        List<AuthorityRule> rules = authorityRules.get(resource.getName());
+    private AuthorityException checkAuthority(Context context, ResourceWrapper resourceWrapper) {
+        AuthorityRule[] rules = this.rules;
         if (rules == null) {
-            return;
+            return checkBlackWhiteAuthority(resourceWrapper, context);
         }
+        return checkBlackWhiteAuthority(rules, context);
+    }
+
+    @Override
+    public void exit(Context context, ResourceWrapper resourceWrapper, int count, Object... args) {
+        fireExit(context, resourceWrapper, count, args);
+    }
+
+    AuthorityException checkBlackWhiteAuthority(ResourceWrapper resource, Context context) {
+        return checkBlackWhiteAuthority(AuthorityRuleManager.getRulesOfResource(resource.getName()), context);
+    }
 
+    AuthorityException checkBlackWhiteAuthority(AuthorityRule[] rules, Context context) {
         for (AuthorityRule rule : rules) {
             if (!AuthorityRuleChecker.passCheck(rule, context)) {
-                throw new AuthorityException(context.getOrigin());
+                return new AuthorityException(context.getOrigin());
             }
         }
+        return null;
     }
 }
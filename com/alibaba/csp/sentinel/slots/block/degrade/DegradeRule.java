@@ -23,6 +23,8 @@ import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
 import com.alibaba.csp.sentinel.slots.block.AbstractRule;
 import com.alibaba.csp.sentinel.slots.block.RuleConstant;
 import com.alibaba.csp.sentinel.slots.clusterbuilder.ClusterBuilderSlot;
+import com.alibaba.csp.sentinel.slots.statistic.metric.MetricSnapshot;
+import com.alibaba.csp.sentinel.util.TimeUtil;
 
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
@@ -42,7 +44,10 @@ import java.util.concurrent.atomic.AtomicLong;
  * resource enters a quasi-degraded state. If the RT of next coming 5
  * requests still exceed this threshold, this resource will be downgraded, which
  * means that in the next time window (defined in 'timeWindow', in seconds) all the
- * access to this resource will be blocked.
+ * access to this resource will be blocked. If {@code rtPercentile} is set, the RT at that
+ * percentile (e.g. 99 for p99) is compared instead of the average. Percentiles need RT histograms,
+ * see {@link com.alibaba.csp.sentinel.config.SentinelConfig#statisticRtHistogram()}. Without them
+ * the average is compared.
  * </li>
  * <li>
  * Exception ratio: When the ratio of exception count per second and the
@@ -81,7 +86,17 @@ public class DegradeRule extends AbstractRule {
      */
     private int grade = RuleConstant.DEGRADE_GRADE_RT;
 
+    /**
+     * RT percentile (0 to 100) compared with the threshold in RT mode. 0 means the average RT.
+     * The average is still used if RT histograms are not enabled.
+     */
+    private double rtPercentile;
+
     private volatile boolean cut = false;
+    /**
+     * When the current cut ends, written before {@link #cut} is set.
+     */
+    private volatile long cutEndTime;
 
     public int getGrade() {
         return grade;
@@ -92,6 +107,22 @@ public class DegradeRule extends AbstractRule {
         return this;
     }
 
+    public double getRtPercentile() {
+        return rtPercentile;
+    }
+
+    /**
+     * Set the RT percentile compared with the threshold in RT mode. It only takes effect if RT histograms
+     * are enabled by {@code csp.sentinel.statistic.rt.histogram}, otherwise the average RT is compared.
+     *
+     * @param rtPercentile the percentile, from 0 to 100, 0 for the average RT
+     * @return this rule
+     */
+    public DegradeRule setRtPercentile(double rtPercentile) {
+        this.rtPercentile = rtPercentile;
+        return this;
+    }
+
     private AtomicLong passCount = new AtomicLong(0);
 
     private final Object lock = new Object();
@@ -149,6 +180,9 @@ public class DegradeRule extends AbstractRule {
         if (grade != that.grade) {
             return false;
         }
+        if (rtPercentile != that.rtPercentile) {
+            return false;
+        }
         return true;
     }
 
@@ -158,6 +192,8 @@ public class DegradeRule extends AbstractRule {
         result = 31 * result + new Double(count).hashCode();
         result = 31 * result + timeWindow;
         result = 31 * result + grade;
+        long temp = Double.doubleToLongBits(rtPercentile);
+        result = 31 * result + (int)(temp ^ (temp >>> 32));
         return result;
     }
 
@@ -195,7 +231,7 @@ public class DegradeRule extends AbstractRule {
             }
          */
         if (grade == RuleConstant.DEGRADE_GRADE_RT) {
-            double rt = clusterNode.avgRt();
+            double rt = rtPercentile > 0 ? clusterNode.rtPercentile(rtPercentile) : clusterNode.avgRtInMicros() / 1000.0;
             if (rt < this.count) {
                 passCount.set(0);
                 return true;
@@ -211,9 +247,10 @@ public class DegradeRule extends AbstractRule {
          * 如果exception / success < count，则会触发降级策略
          */
         else if (grade == RuleConstant.DEGRADE_GRADE_EXCEPTION_RATIO) {
-            double exception = clusterNode.exceptionQps();
-            double success = clusterNode.successQps();
-            long total = clusterNode.totalQps();
+            MetricSnapshot snapshot = clusterNode.snapshotInSecond();
+            double exception = snapshot.exceptionQps();
+            double success = snapshot.successQps();
+            long total = snapshot.passQps() + snapshot.blockQps();
             // if total qps less than RT_MAX_EXCEED_N, pass.
             if (total < RT_MAX_EXCEED_N) {
                 return true;
@@ -256,6 +293,7 @@ public class DegradeRule extends AbstractRule {
         synchronized (lock) {
             if (!cut) {
                 // Automatically degrade.
+                cutEndTime = TimeUtil.currentTimeMillis() + timeWindow * 1000L;
                 cut = true;
                 ResetTask resetTask = new ResetTask(this);
                 pool.schedule(resetTask, timeWindow, TimeUnit.SECONDS);
@@ -264,6 +302,31 @@ public class DegradeRule extends AbstractRule {
         }
     }
 
+    /**
+     * Take over the state of a former rule of the same resource, so that reloading rules neither closes an
+     * open circuit early nor forgets the slow requests already counted. If the former rule is cut, this
+     * rule stays cut until the time window of the former one ends.
+     *
+     * @param former the former rule
+     */
+    void inheritState(DegradeRule former) {
+        if (former == this) {
+            return;
+        }
+        passCount.set(former.passCount.get());
+        if (!former.cut) {
+            return;
+        }
+        synchronized (lock) {
+            if (!cut) {
+                cutEndTime = former.cutEndTime;
+                cut = true;
+                long delay = Math.max(0, cutEndTime - TimeUtil.currentTimeMillis());
+                pool.schedule(new ResetTask(this), delay, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
     @Override
     public String toString() {
         return "DegradeRule{" +
@@ -272,6 +335,7 @@ public class DegradeRule extends AbstractRule {
             ", count=" + count +
             ", limitApp=" + getLimitApp() +
             ", timeWindow=" + timeWindow +
+            ", rtPercentile=" + rtPercentile +
             "}";
     }
 
@@ -16,16 +16,20 @@
 package com.alibaba.csp.sentinel.slots.block.degrade;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 
+import com.alibaba.csp.sentinel.config.SentinelConfig;
 import com.alibaba.csp.sentinel.context.Context;
 import com.alibaba.csp.sentinel.log.RecordLog;
 import com.alibaba.csp.sentinel.node.DefaultNode;
 import com.alibaba.csp.sentinel.property.DynamicSentinelProperty;
 import com.alibaba.csp.sentinel.property.PropertyListener;
 import com.alibaba.csp.sentinel.property.SentinelProperty;
+import com.alibaba.csp.sentinel.slotchain.ResourceRegistry;
 import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
 import com.alibaba.csp.sentinel.slots.block.BlockException;
 import com.alibaba.csp.sentinel.slots.block.RuleConstant;
@@ -37,8 +41,13 @@ import com.alibaba.csp.sentinel.util.StringUtil;
  */
 public class DegradeRuleManager {
 
-    private static volatile Map<String, List<DegradeRule>> degradeRules
-        = new ConcurrentHashMap<String, List<DegradeRule>>();
+    private static final DegradeRule[] NO_RULES = new DegradeRule[0];
+
+    /**
+     * Rules of each resource. The map and the arrays in it are never modified once published: every update
+     * builds a new map and swaps it in, so readers always see a complete rule set.
+     */
+    private static volatile Map<String, DegradeRule[]> degradeRules = Collections.emptyMap();
 
     final static RulePropertyListener listener = new RulePropertyListener();
     private static SentinelProperty<List<DegradeRule>> currentProperty
@@ -65,20 +74,43 @@ public class DegradeRuleManager {
 
     public static void checkDegrade(ResourceWrapper resource, Context context, DefaultNode node, int count)
         throws BlockException {
-        if (degradeRules == null) {
-            return;
+        DegradeException e = tryCheckDegrade(resource, context, node, count);
+        if (e != null) {
+            throw e;
         }
+    }
 
-        List<DegradeRule> rules = degradeRules.get(resource.getName());
-        if (rules == null) {
-            return;
-        }
+    /**
+     * Same as {@link #checkDegrade(ResourceWrapper, Context, DefaultNode, int)}, but the exception is returned
+     * instead of thrown.
+     *
+     * @return the exception of the first rule not passed, or null if all rules pass
+     */
+    static DegradeException tryCheckDegrade(ResourceWrapper resource, Context context, DefaultNode node,
+                                            int count) {
+        DegradeRule[] rules = degradeRules.get(resource.getName());
+        return rules == null ? null : tryCheckDegrade(rules, context, node, count);
+    }
 
+    static DegradeException tryCheckDegrade(DegradeRule[] rules, Context context, DefaultNode node, int count) {
         for (DegradeRule rule : rules) {
             if (!rule.passCheck(context, node, count)) {
-                throw new DegradeException(rule.getLimitApp());
+                return new DegradeException(rule.getLimitApp());
             }
         }
+        return null;
+    }
+
+    /**
+     * Get current degrade rules of provided resource, for binding to its {@link DegradeSlot}. The array is
+     * shared by all readers of current rule set and must not be modified.
+     *
+     * @param resource resource name
+     * @return the rules, empty if none
+     */
+    static DegradeRule[] getRulesOfResource(String resource) {
+        DegradeRule[] rules = degradeRules.get(resource);
+        return rules == null ? NO_RULES : rules;
     }
 
     public static boolean hasConfig(String resource) {
@@ -92,11 +124,8 @@ public class DegradeRuleManager {
      */
     public static List<DegradeRule> getRules() {
         List<DegradeRule> rules = new ArrayList<DegradeRule>();
-        if (degradeRules == null) {
-            return rules;
-        }
-        for (Map.Entry<String, List<DegradeRule>> entry : degradeRules.entrySet()) {
-            rules.addAll(entry.getValue());
+        for (DegradeRule[] resourceRules : degradeRules.values()) {
+            rules.addAll(Arrays.asList(resourceRules));
         }
         return rules;
     }
@@ -114,33 +143,35 @@ public class DegradeRuleManager {
         }
     }
 
+    /**
+     * Synchronized, since a load reads the current rules to carry the circuit state over.
+     */
     private static class RulePropertyListener implements PropertyListener<List<DegradeRule>> {
 
         @Override
-        public void configUpdate(List<DegradeRule> conf) {
-            Map<String, List<DegradeRule>> rules = loadDegradeConf(conf);
-            if (rules != null) {
-                degradeRules.clear();
-                degradeRules.putAll(rules);
-            }
-            RecordLog.info("[DegradeRuleManager] Degrade rules received: " + degradeRules);
+        public synchronized void configUpdate(List<DegradeRule> conf) {
+            degradeRules = loadDegradeConf(conf, degradeRules);
+            ResourceRegistry.recompileChains();
+            RecordLog.info("[DegradeRuleManager] Degrade rules received: " + getRules());
         }
 
         @Override
-        public void configLoad(List<DegradeRule> conf) {
-            Map<String, List<DegradeRule>> rules = loadDegradeConf(conf);
-            if (rules != null) {
-                degradeRules.clear();
-                degradeRules.putAll(rules);
-            }
-            RecordLog.info("[DegradeRuleManager] Degrade rules loaded: " + degradeRules);
+        public synchronized void configLoad(List<DegradeRule> conf) {
+            degradeRules = loadDegradeConf(conf, degradeRules);
+            ResourceRegistry.recompileChains();
+            RecordLog.info("[DegradeRuleManager] Degrade rules loaded: " + getRules());
         }
 
-        private Map<String, List<DegradeRule>> loadDegradeConf(List<DegradeRule> list) {
-            Map<String, List<DegradeRule>> newRuleMap = new ConcurrentHashMap<String, List<DegradeRule>>();
+        /**
+         * Build the rules of each resource. A new rule takes over the circuit state of a current rule with
+         * the same limit app and grade (the equal one first), so that reloading rules does not reset it.
+         */
+        private Map<String, DegradeRule[]> loadDegradeConf(List<DegradeRule> list,
+                                                           Map<String, DegradeRule[]> current) {
+            Map<String, List<DegradeRule>> newRuleMap = new HashMap<String, List<DegradeRule>>();
 
             if (list == null || list.isEmpty()) {
-                return newRuleMap;
+                return Collections.emptyMap();
             }
 
             for (DegradeRule rule : list) {
@@ -149,6 +180,11 @@ public class DegradeRuleManager {
                     continue;
                 }
 
+                if (rule.getGrade() == RuleConstant.DEGRADE_GRADE_RT && rule.getRtPercentile() > 0
+                    && !SentinelConfig.statisticRtHistogram()) {
+                    RecordLog.warn("[DegradeRuleManager] RT histograms are disabled, the average RT is compared "
+                        + "instead of the percentile of degrade rule: " + rule);
+                }
                 if (StringUtil.isBlank(rule.getLimitApp())) {
                     rule.setLimitApp(RuleConstant.LIMIT_APP_DEFAULT);
                 }
@@ -162,14 +198,57 @@ public class DegradeRuleManager {
                 ruleM.add(rule);
             }
 
-            return newRuleMap;
+            Map<String, DegradeRule[]> ruleArrays = new HashMap<String, DegradeRule[]>(newRuleMap.size() * 2);
+            for (Map.Entry<String, List<DegradeRule>> entry : newRuleMap.entrySet()) {
+                DegradeRule[] rules = entry.getValue().toArray(new DegradeRule[entry.getValue().size()]);
+                DegradeRule[] formerRules = current.get(entry.getKey());
+                if (formerRules != null) {
+                    boolean[] taken = new boolean[formerRules.length];
+                    for (DegradeRule rule : rules) {
+                        DegradeRule former = takeFormerRule(formerRules, taken, rule);
+                        if (former != null) {
+                            rule.inheritState(former);
+                        }
+                    }
+                }
+                ruleArrays.put(entry.getKey(), rules);
+            }
+            return ruleArrays;
+        }
+
+        /**
+         * Find a former rule not taken yet, equal to the new rule or else with the same limit app and grade,
+         * and take it.
+         */
+        private DegradeRule takeFormerRule(DegradeRule[] formerRules, boolean[] taken, DegradeRule rule) {
+            int found = -1;
+            for (int i = 0; i < formerRules.length; i++) {
+                DegradeRule former = formerRules[i];
+                if (taken[i] || former.getGrade() != rule.getGrade()
+                    || !StringUtil.equals(former.getLimitApp(), rule.getLimitApp())) {
+                    continue;
+                }
+                if (former.equals(rule)) {
+                    found = i;
+                    break;
+                }
+                if (found < 0) {
+                    found = i;
+                }
+            }
+            if (found < 0) {
+                return null;
+            }
+            taken[found] = true;
+            return formerRules[found];
         }
 
     }
 
     public static boolean isValidRule(DegradeRule rule) {
         boolean baseValid = rule != null && !StringUtil.isBlank(rule.getResource())
-            && rule.getCount() >= 0 && rule.getTimeWindow() > 0;
+            && rule.getCount() >= 0 && rule.getTimeWindow() > 0
+            && rule.getRtPercentile() >= 0 && rule.getRtPercentile() <= 100;
         if (!baseValid) {
             return false;
         }
@@ -20,21 +20,57 @@ import com.alibaba.csp.sentinel.node.DefaultNode;
 import com.alibaba.csp.sentinel.slotchain.AbstractLinkedProcessorSlot;
 import com.alibaba.csp.sentinel.slotchain.ProcessorSlot;
 import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
+import com.alibaba.csp.sentinel.slotchain.RuleAwareSlot;
+import com.alibaba.csp.sentinel.slots.block.BlockException;
 
 /**
- * A {@link ProcessorSlot} dedicates to {@link DegradeRule} checking.
+ * A {@link ProcessorSlot} dedicates to {@link DegradeRule} checking. It is left out of the chain while
+ * the resource has no degrade rule, see {@link RuleAwareSlot}.
  *
  * @author leyou
  */
-public class DegradeSlot extends AbstractLinkedProcessorSlot<DefaultNode> {
+public class DegradeSlot extends AbstractLinkedProcessorSlot<DefaultNode> implements RuleAwareSlot {
+
+    /**
+     * Degrade rules of the resource bound by {@link #bindRules(ResourceWrapper)}, or null if not bound.
+     */
+    private volatile DegradeRule[] rules = null;
+
+    @Override
+    public boolean bindRules(ResourceWrapper resourceWrapper) {
+        DegradeRule[] rules = DegradeRuleManager.getRulesOfResource(resourceWrapper.getName());
+        this.rules = rules;
+        return rules.length > 0;
+    }
 
     @Override
     public void entry(Context context, ResourceWrapper resourceWrapper, DefaultNode node, int count, Object... args)
         throws Throwable {
-        DegradeRuleManager.checkDegrade(resourceWrapper, context, node, count);
+        DegradeException e = checkDegrade(context, resourceWrapper, node, count);
+        if (e != null) {
+            throw e;
+        }
         fireEntry(context, resourceWrapper, node, count, args);
     }
 
+    @Override
+    public BlockException tryEntry(Context context, ResourceWrapper resourceWrapper, DefaultNode node, int count,
+                                   Object... args) throws Throwable {
+        DegradeException e = checkDegrade(context, resourceWrapper, node, count);
+        if (e != null) {
+            return e;
+        }
+        return fireTryEntry(context, resourceWrapper, node, count, args);
+    }
+
+    private DegradeException checkDegrade(Context context, ResourceWrapper resourceWrapper, DefaultNode node, int count) {
+        DegradeRule[] rules = this.rules;
+        if (rules == null) {
+            return DegradeRuleManager.tryCheckDegrade(resourceWrapper, context, node, count);
+        }
+        return DegradeRuleManager.tryCheckDegrade(rules, context, node, count);
+    }
+
     @Override
     public void exit(Context context, ResourceWrapper resourceWrapper, int count, Object... args) {
         fireExit(context, resourceWrapper, count, args);
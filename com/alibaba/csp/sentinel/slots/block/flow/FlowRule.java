@@ -71,7 +71,7 @@ public class FlowRule extends AbstractRule {
 
     /**
      * Rate limiter control behavior.
-     * 0. default, 1. warm up, 2. rate limiter
+     * 0. default, 1. warm up, 2. rate limiter, 3. token bucket, 4. warm up + rate limiter
      */
     private int controlBehavior = RuleConstant.CONTROL_BEHAVIOR_DEFAULT;
 
@@ -82,6 +82,11 @@ public class FlowRule extends AbstractRule {
      */
     private int maxQueueingTimeMs = 500;
 
+    /**
+     * Max tokens held in token bucket behavior, 0 for the threshold count (one second of tokens).
+     */
+    private double burstCount;
+
     private Controller controller;
 
     public int getControlBehavior() {
@@ -102,6 +107,19 @@ public class FlowRule extends AbstractRule {
         return this;
     }
 
+    public double getBurstCount() {
+        return burstCount;
+    }
+
+    public FlowRule setBurstCount(double burstCount) {
+        this.burstCount = burstCount;
+        return this;
+    }
+
+    public Controller getRater() {
+        return controller;
+    }
+
     public FlowRule setRater(Controller rater) {
         this.controller = rater;
         return this;
@@ -169,7 +187,12 @@ public class FlowRule extends AbstractRule {
             return true;
         }
 
-        return controller.canPass(selectedNode, acquireCount);
+        Controller rater = controller;
+        if (rater instanceof ReservingController) {
+            // Rate limiters may reserve a pass time for an async entry which allows it instead of blocking.
+            return ((ReservingController)rater).canPass(selectedNode, acquireCount, context.getCurEntry());
+        }
+        return rater.canPass(selectedNode, acquireCount);
     }
 
     /**
@@ -310,6 +333,10 @@ public class FlowRule extends AbstractRule {
             return false;
         }
 
+        if (Double.compare(flowRule.burstCount, burstCount) != 0) {
+            return false;
+        }
+
         return true;
     }
 
@@ -326,6 +353,8 @@ public class FlowRule extends AbstractRule {
         result = 31 * result + warmUpPeriodSec;
         result = 31 * result + controlBehavior;
         result = 31 * result + maxQueueingTimeMs;
+        temp = Double.doubleToLongBits(burstCount);
+        result = 31 * result + (int)(temp ^ (temp >>> 32));
         return result;
     }
 
@@ -341,6 +370,7 @@ public class FlowRule extends AbstractRule {
             ", controlBehavior=" + controlBehavior +
             ", warmUpPeriodSec=" + warmUpPeriodSec +
             ", maxQueueingTimeMs=" + maxQueueingTimeMs +
+            ", burstCount=" + burstCount +
             ", controller=" + controller +
             "}";
     }
@@ -16,9 +16,10 @@
 package com.alibaba.csp.sentinel.slots.block.flow;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
@@ -32,12 +33,15 @@ import com.alibaba.csp.sentinel.node.metric.MetricTimerListener;
 import com.alibaba.csp.sentinel.property.DynamicSentinelProperty;
 import com.alibaba.csp.sentinel.property.PropertyListener;
 import com.alibaba.csp.sentinel.property.SentinelProperty;
+import com.alibaba.csp.sentinel.slotchain.ResourceRegistry;
 import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
 import com.alibaba.csp.sentinel.slots.block.BlockException;
 import com.alibaba.csp.sentinel.slots.block.RuleConstant;
 import com.alibaba.csp.sentinel.slots.block.flow.controller.DefaultController;
 import com.alibaba.csp.sentinel.slots.block.flow.controller.PaceController;
+import com.alibaba.csp.sentinel.slots.block.flow.controller.TokenBucketController;
 import com.alibaba.csp.sentinel.slots.block.flow.controller.WarmUpController;
+import com.alibaba.csp.sentinel.slots.block.flow.controller.WarmUpRateLimiterController;
 
 /**
  * <p>
@@ -53,7 +57,13 @@ import com.alibaba.csp.sentinel.slots.block.flow.controller.WarmUpController;
  */
 public class FlowRuleManager {
 
-    private static final Map<String, List<FlowRule>> flowRules = new ConcurrentHashMap<String, List<FlowRule>>();
+    private static final FlowRule[] NO_RULES = new FlowRule[0];
+
+    /**
+     * Rules of each resource. The map and the arrays in it are never modified once published: every update
+     * builds a new map and swaps it in, so readers always see a complete rule set.
+     */
+    private static volatile Map<String, FlowRule[]> flowRules = Collections.emptyMap();
     private final static ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(1,
         new NamedThreadFactory("sentinel-metrics-record-task", true));
     private final static FlowPropertyListener listener = new FlowPropertyListener();
@@ -80,14 +90,17 @@ public class FlowRuleManager {
     }
 
     /**
-     * Get a copy of the rules.
+     * Get a copy of the rules. The returned rules are copies as well, so changing them does not touch
+     * the loaded rules.
      *
      * @return a new copy of the rules.
      */
     public static List<FlowRule> getRules() {
         List<FlowRule> rules = new ArrayList<FlowRule>();
-        for (Map.Entry<String, List<FlowRule>> entry : flowRules.entrySet()) {
-            rules.addAll(entry.getValue());
+        for (FlowRule[] resourceRules : flowRules.values()) {
+            for (FlowRule rule : resourceRules) {
+                rules.add(copyOf(rule));
+            }
         }
         return rules;
     }
@@ -105,11 +118,20 @@ public class FlowRuleManager {
         currentProperty.updateValue(rules);
     }
 
-    private static Map<String, List<FlowRule>> loadFlowConf(List<FlowRule> list) {
-        Map<String, List<FlowRule>> newRuleMap = new ConcurrentHashMap<String, List<FlowRule>>();
+    /**
+     * Build the rules of each resource. A new rule takes over the controller state of a current rule with
+     * the same target (the equal one first), so that reloading rules neither makes warm-up rules cold again
+     * nor lets rate limiters burst. The given rules are copied rather than changed, so that a rule set which
+     * is loaded again, e.g. from {@link #getRules()}, never changes the rules already published.
+     *
+     * @param list    new rules
+     * @param current current rules of each resource
+     */
+    private static Map<String, FlowRule[]> loadFlowConf(List<FlowRule> list, Map<String, FlowRule[]> current) {
+        Map<String, List<FlowRule>> newRuleMap = new HashMap<String, List<FlowRule>>();
 
         if (list == null || list.isEmpty()) {
-            return newRuleMap;
+            return Collections.emptyMap();
         }
 
         for (FlowRule rule : list) {
@@ -117,23 +139,11 @@ public class FlowRuleManager {
                 RecordLog.warn("[FlowRuleManager] Ignoring invalid flow rule when loading new flow rules: " + rule);
                 continue;
             }
+            rule = copyOf(rule);
             if (StringUtil.isBlank(rule.getLimitApp())) {
                 rule.setLimitApp(RuleConstant.LIMIT_APP_DEFAULT);
             }
 
-            Controller rater = new DefaultController(rule.getCount(), rule.getGrade());
-            if (rule.getGrade() == RuleConstant.FLOW_GRADE_QPS
-                && rule.getControlBehavior() == RuleConstant.CONTROL_BEHAVIOR_WARM_UP
-                && rule.getWarmUpPeriodSec() > 0) {
-                rater = new WarmUpController(rule.getCount(), rule.getWarmUpPeriodSec(), ColdFactorProperty.coldFactor);
-
-            } else if (rule.getGrade() == RuleConstant.FLOW_GRADE_QPS
-                && rule.getControlBehavior() == RuleConstant.CONTROL_BEHAVIOR_RATE_LIMITER
-                && rule.getMaxQueueingTimeMs() > 0) {
-                rater = new PaceController(rule.getMaxQueueingTimeMs(), rule.getCount());
-            }
-            rule.setRater(rater);
-
             String identity = rule.getResource();
             List<FlowRule> ruleM = newRuleMap.get(identity);
 
@@ -145,19 +155,151 @@ public class FlowRuleManager {
             ruleM.add(rule);
 
         }
-        return newRuleMap;
+
+        Map<String, FlowRule[]> ruleArrays = new HashMap<String, FlowRule[]>(newRuleMap.size() * 2);
+        for (Map.Entry<String, List<FlowRule>> entry : newRuleMap.entrySet()) {
+            FlowRule[] rules = entry.getValue().toArray(new FlowRule[entry.getValue().size()]);
+            FlowRule[] formerRules = current.get(entry.getKey());
+            boolean[] taken = formerRules == null ? null : new boolean[formerRules.length];
+
+            for (FlowRule rule : rules) {
+                Controller rater = buildController(rule);
+                FlowRule former = takeFormerRule(formerRules, taken, rule);
+                if (former != null) {
+                    inheritState(rater, former.getRater());
+                }
+                rule.setRater(rater);
+            }
+            ruleArrays.put(entry.getKey(), rules);
+        }
+        return ruleArrays;
+    }
+
+    private static FlowRule copyOf(FlowRule rule) {
+        FlowRule copy = new FlowRule();
+        copy.setResource(rule.getResource());
+        copy.setLimitApp(rule.getLimitApp());
+        copy.setGrade(rule.getGrade())
+            .setCount(rule.getCount())
+            .setStrategy(rule.getStrategy())
+            .setRefResource(rule.getRefResource())
+            .setControlBehavior(rule.getControlBehavior())
+            .setWarmUpPeriodSec(rule.getWarmUpPeriodSec())
+            .setMaxQueueingTimeMs(rule.getMaxQueueingTimeMs())
+            .setBurstCount(rule.getBurstCount())
+            .setRater(rule.getRater());
+        return copy;
+    }
+
+    private static Controller buildController(FlowRule rule) {
+        if (rule.getGrade() == RuleConstant.FLOW_GRADE_QPS
+            && rule.getControlBehavior() == RuleConstant.CONTROL_BEHAVIOR_WARM_UP
+            && rule.getWarmUpPeriodSec() > 0) {
+            return new WarmUpController(rule.getCount(), rule.getWarmUpPeriodSec(), ColdFactorProperty.coldFactor);
+
+        } else if (rule.getGrade() == RuleConstant.FLOW_GRADE_QPS
+            && rule.getControlBehavior() == RuleConstant.CONTROL_BEHAVIOR_RATE_LIMITER
+            && rule.getMaxQueueingTimeMs() > 0) {
+            return new PaceController(rule.getMaxQueueingTimeMs(), rule.getCount());
+
+        } else if (rule.getGrade() == RuleConstant.FLOW_GRADE_QPS
+            && rule.getControlBehavior() == RuleConstant.CONTROL_BEHAVIOR_TOKEN_BUCKET) {
+            return new TokenBucketController(rule.getCount(), rule.getBurstCount());
+
+        } else if (rule.getGrade() == RuleConstant.FLOW_GRADE_QPS
+            && rule.getControlBehavior() == RuleConstant.CONTROL_BEHAVIOR_WARM_UP_RATE_LIMITER
+            && rule.getWarmUpPeriodSec() > 0 && rule.getMaxQueueingTimeMs() > 0) {
+            return new WarmUpRateLimiterController(rule.getCount(), rule.getWarmUpPeriodSec(),
+                rule.getMaxQueueingTimeMs(), ColdFactorProperty.coldFactor);
+        }
+        return new DefaultController(rule.getCount(), rule.getGrade());
+    }
+
+    /**
+     * Find a former rule not taken yet, equal to the new rule or else with the same target, and take it.
+     */
+    private static FlowRule takeFormerRule(FlowRule[] formerRules, boolean[] taken, FlowRule rule) {
+        if (formerRules == null) {
+            return null;
+        }
+        int found = -1;
+        for (int i = 0; i < formerRules.length; i++) {
+            if (taken[i] || !isSameTarget(formerRules[i], rule)) {
+                continue;
+            }
+            if (formerRules[i].equals(rule)) {
+                found = i;
+                break;
+            }
+            if (found < 0) {
+                found = i;
+            }
+        }
+        if (found < 0) {
+            return null;
+        }
+        taken[found] = true;
+        return formerRules[found];
+    }
+
+    private static boolean isSameTarget(FlowRule former, FlowRule rule) {
+        return former.getGrade() == rule.getGrade()
+            && former.getStrategy() == rule.getStrategy()
+            && former.getControlBehavior() == rule.getControlBehavior()
+            && StringUtil.equals(former.getLimitApp(), rule.getLimitApp())
+            && StringUtil.equals(former.getRefResource(), rule.getRefResource());
+    }
+
+    private static void inheritState(Controller rater, Controller former) {
+        if (rater instanceof WarmUpController && former instanceof WarmUpController) {
+            ((WarmUpController)rater).inheritState((WarmUpController)former);
+        } else if (rater instanceof WarmUpRateLimiterController && former instanceof WarmUpRateLimiterController) {
+            ((WarmUpRateLimiterController)rater).inheritState((WarmUpRateLimiterController)former);
+        } else if (rater instanceof PaceController && former instanceof PaceController) {
+            ((PaceController)rater).inheritState((PaceController)former);
+        } else if (rater instanceof TokenBucketController && former instanceof TokenBucketController) {
+            ((TokenBucketController)rater).inheritState((TokenBucketController)former);
+        }
     }
 
     public static void checkFlow(ResourceWrapper resource, Context context, DefaultNode node, int count)
         throws BlockException {
-        List<FlowRule> rules = flowRules.get(resource.getName());
-        if (rules != null) {
-            for (FlowRule rule : rules) {
-                if (!rule.passCheck(context, node, count)) {
-                    throw new FlowException(rule.getLimitApp());
-                }
+        FlowException e = tryCheckFlow(resource, context, node, count);
+        if (e != null) {
+            throw e;
+        }
+    }
+
+    /**
+     * Same as {@link #checkFlow(ResourceWrapper, Context, DefaultNode, int)}, but the exception is returned
+     * instead of thrown.
+     *
+     * @return the exception of the first rule not passed, or null if all rules pass
+     */
+    static FlowException tryCheckFlow(ResourceWrapper resource, Context context, DefaultNode node, int count) {
+        FlowRule[] rules = flowRules.get(resource.getName());
+        return rules == null ? null : tryCheckFlow(rules, context, node, count);
+    }
+
+    static FlowException tryCheckFlow(FlowRule[] rules, Context context, DefaultNode node, int count) {
+        for (FlowRule rule : rules) {
+            if (!rule.passCheck(context, node, count)) {
+                return new FlowException(rule.getLimitApp());
             }
         }
+        return null;
+    }
+
+    /**
+     * Get current flow rules of provided resource, for binding to its {@link FlowSlot}. The array is shared
+     * by all readers of current rule set and must not be modified.
+     *
+     * @param resource resource name
+     * @return the rules, empty if none
+     */
+    static FlowRule[] getRulesOfResource(String resource) {
+        FlowRule[] rules = flowRules.get(resource);
+        return rules == null ? NO_RULES : rules;
     }
 
     public static boolean hasConfig(String resource) {
@@ -169,7 +311,7 @@ public class FlowRuleManager {
             return false;
         }
 
-        List<FlowRule> rules = flowRules.get(resourceName);
+        FlowRule[] rules = flowRules.get(resourceName);
 
         if (rules != null) {
             for (FlowRule rule : rules) {
@@ -182,26 +324,23 @@ public class FlowRuleManager {
         return true;
     }
 
+    /**
+     * Updates are synchronized on the listener, as each new rule set is built from the current one.
+     */
     private static final class FlowPropertyListener implements PropertyListener<List<FlowRule>> {
 
         @Override
-        public void configUpdate(List<FlowRule> value) {
-            Map<String, List<FlowRule>> rules = loadFlowConf(value);
-            if (rules != null) {
-                flowRules.clear();
-                flowRules.putAll(rules);
-            }
-            RecordLog.info("[FlowRuleManager] Flow rules received: " + flowRules);
+        public synchronized void configUpdate(List<FlowRule> value) {
+            flowRules = loadFlowConf(value, flowRules);
+            ResourceRegistry.recompileChains();
+            RecordLog.info("[FlowRuleManager] Flow rules received: " + getRules());
         }
 
         @Override
-        public void configLoad(List<FlowRule> conf) {
-            Map<String, List<FlowRule>> rules = loadFlowConf(conf);
-            if (rules != null) {
-                flowRules.clear();
-                flowRules.putAll(rules);
-            }
-            RecordLog.info("[FlowRuleManager] Flow rules loaded: " + flowRules);
+        public synchronized void configLoad(List<FlowRule> conf) {
+            flowRules = loadFlowConf(conf, flowRules);
+            ResourceRegistry.recompileChains();
+            RecordLog.info("[FlowRuleManager] Flow rules loaded: " + getRules());
         }
 
     }
@@ -229,6 +368,11 @@ public class FlowRuleManager {
                 return rule.getWarmUpPeriodSec() > 0;
             case RuleConstant.CONTROL_BEHAVIOR_RATE_LIMITER:
                 return rule.getMaxQueueingTimeMs() > 0;
+            case RuleConstant.CONTROL_BEHAVIOR_WARM_UP_RATE_LIMITER:
+                return rule.getWarmUpPeriodSec() > 0 && rule.getMaxQueueingTimeMs() > 0;
+            case RuleConstant.CONTROL_BEHAVIOR_TOKEN_BUCKET:
+                // The bucket is shared by all requests of the rule, whatever node they are counted on.
+                return rule.getBurstCount() >= 0 && rule.getStrategy() == RuleConstant.STRATEGY_DIRECT;
             default:
                 return true;
         }
@@ -19,6 +19,8 @@ import com.alibaba.csp.sentinel.context.Context;
 import com.alibaba.csp.sentinel.node.DefaultNode;
 import com.alibaba.csp.sentinel.slotchain.AbstractLinkedProcessorSlot;
 import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
+import com.alibaba.csp.sentinel.slotchain.RuleAwareSlot;
+import com.alibaba.csp.sentinel.slots.block.BlockException;
 
 /**
  * <p>
@@ -105,10 +107,42 @@ import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
  * Message. When a large number of requests beyond the system’s capacity arrive
  * at the same time, the system using this strategy will handle requests and its
  * fixed rate until all the requests have been processed or time out.
+ * How queued requests wait is set by "csp.sentinel.flow.pace.wait": the thread
+ * sleeps or is parked. Async entries created to reserve their pass time pass at
+ * once with it instead.
+ *
+ * 4. Token bucket(RuleConstant.CONTROL_BEHAVIOR_TOKEN_BUCKET) This strategy
+ * enforces the QPS threshold exactly with a token bucket refilled continuously,
+ * instead of comparing the sliding window statistics with the threshold. It lets
+ * bursts up to the "burstCount" field of flow rule (the threshold by default)
+ * through, and never more than the bucket holds, even under contention. The bucket
+ * does not look at any node, so only the direct strategy is allowed.
+ *
+ * 5. Warmup + rate limiter(RuleConstant.CONTROL_BEHAVIOR_WARM_UP_RATE_LIMITER)
+ * This strategy paces requests as the rate limiter does, with an interval
+ * following the warmup curve: a cold resource starts at the threshold divided by
+ * the cold factor and reaches the threshold in "warmUpPeriodSec", without
+ * ever letting a burst through. "maxQueueingTimeMs" applies as in the rate limiter.
+ *
+ * The slot is bound to the flow rules of its resource whenever the chain is compiled, and is left out of
+ * the chain while the resource has no flow rule, see {@link RuleAwareSlot}.
  *
  * @author jialiang.linjl
  */
-public class FlowSlot extends AbstractLinkedProcessorSlot<DefaultNode> {
+public class FlowSlot extends AbstractLinkedProcessorSlot<DefaultNode> implements RuleAwareSlot {
+
+    /**
+     * Flow rules of the resource bound by {@link #bindRules(ResourceWrapper)}, or null if not bound,
+     * in which case the rules are looked up on every entry.
+     */
+    private volatile FlowRule[] rules = null;
+
+    @Override
+    public boolean bindRules(ResourceWrapper resourceWrapper) {
+        FlowRule[] rules = FlowRuleManager.getRulesOfResource(resourceWrapper.getName());
+        this.rules = rules;
+        return rules.length > 0;
+    }
 
     @Override
     public void entry(Context context, ResourceWrapper resourceWrapper, DefaultNode node, int count, Object... args)
@@ -117,11 +151,31 @@ public class FlowSlot extends AbstractLinkedProcessorSlot<DefaultNode> {
          * 如果触发限流的条件，则抛出异常回到StatisticSlot
          * fireEntry不会被执行，则ProcessorSlotChain执行链的剩余Slot将不会被执行
          */
-        FlowRuleManager.checkFlow(resourceWrapper, context, node, count);
-
+        FlowException e = checkFlow(context, resourceWrapper, node, count);
+        if (e != null) {
+            throw e;
+        }
         fireEntry(context, resourceWrapper, node, count, args);
     }
 
+    @Override
+    public BlockException tryEntry(Context context, ResourceWrapper resourceWrapper, DefaultNode node, int count,
+                                   Object... args) throws Throwable {
+        FlowException e = checkFlow(context, resourceWrapper, node, count);
+        if (e != null) {
+            return e;
+        }
+        return fireTryEntry(context, resourceWrapper, node, count, args);
+    }
+
+    private FlowException checkFlow(Context context, ResourceWrapper resourceWrapper, DefaultNode node, int count) {
+        FlowRule[] rules = this.rules;
+        if (rules == null) {
+            return FlowRuleManager.tryCheckFlow(resourceWrapper, context, node, count);
+        }
+        return FlowRuleManager.tryCheckFlow(rules, context, node, count);
+    }
+
 
     /**
      * 不做操作，调用父类的退出方法，执行下一个Slot的exit操作
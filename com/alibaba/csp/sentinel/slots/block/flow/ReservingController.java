@@ -0,0 +1,36 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.block.flow;
+
+import com.alibaba.csp.sentinel.Entry;
+import com.alibaba.csp.sentinel.node.Node;
+
+/**
+ * A {@link Controller} which may reserve a later pass time for an entry instead of making the calling
+ * thread wait, see {@link com.alibaba.csp.sentinel.AsyncEntry#isPassReservable()}.
+ */
+public interface ReservingController extends Controller {
+
+    /**
+     * Same as {@link #canPass(Node, int)}, but aware of the entry being checked.
+     *
+     * @param node         the node to check
+     * @param acquireCount tokens to acquire
+     * @param entry        the entry being checked
+     * @return true if the request can pass
+     */
+    boolean canPass(Node node, int acquireCount, Entry entry);
+}
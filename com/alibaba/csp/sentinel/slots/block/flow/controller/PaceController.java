@@ -15,69 +15,158 @@
  */
 package com.alibaba.csp.sentinel.slots.block.flow.controller;
 
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.alibaba.csp.sentinel.AsyncEntry;
+import com.alibaba.csp.sentinel.Entry;
+import com.alibaba.csp.sentinel.config.SentinelConfig;
 import com.alibaba.csp.sentinel.node.Node;
-import com.alibaba.csp.sentinel.slots.block.flow.Controller;
+import com.alibaba.csp.sentinel.slots.block.flow.ReservingController;
 import com.alibaba.csp.sentinel.util.TimeUtil;
 
-import java.util.concurrent.atomic.AtomicLong;
-
 /**
+ * <p>
+ * Lets requests pass at a steady interval. A request arriving before its turn reserves the next free pass
+ * time, as long as it is within the max queueing time, and waits for it as chosen by
+ * {@link SentinelConfig#flowPaceWait()}, unless it is an {@link AsyncEntry} which lets the pass time be
+ * reserved, see {@link AsyncEntry#isPassReservable()}. Pass times are kept in nanoseconds of {@link TimeUtil#nanoTime()},
+ * so that the interval stays exact above 1000 QPS, and waits are measured by the same clock.
+ * </p>
+ *
  * @author jialiang.linjl
  */
-public class PaceController implements Controller {
+public class PaceController implements ReservingController {
 
-    private final int maxQueueingTimeMs;
+    private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+    private static final long NANOS_PER_MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private static final String WAIT_PARK = "park";
+    private static final boolean PARK = WAIT_PARK.equals(SentinelConfig.flowPaceWait());
+
+    private final long maxQueueingTimeNanos;
     private final double count;
-    private final AtomicLong latestPassedTime = new AtomicLong(-1);
+    /**
+     * The reserved pass time of the latest request, which starts a day ago so that the first request passes.
+     */
+    private final AtomicLong latestPassedTime = new AtomicLong(TimeUtil.nanoTime() - TimeUnit.DAYS.toNanos(1));
 
     public PaceController(int timeOut, double count) {
-        this.maxQueueingTimeMs = timeOut;
+        this.maxQueueingTimeNanos = TimeUnit.MILLISECONDS.toNanos(timeOut);
         this.count = count;
     }
 
     /**
      * 限流-匀速启动
-     * 当达到限流条件时，不会直接拒绝请求，而是将计算等待时间进行sleep
+     * 当达到限流条件时，不会直接拒绝请求，而是预约下一个通过时间并等待到该时间
      * @param node
      * @param acquireCount
      * @return
      */
     @Override
     public boolean canPass(Node node, int acquireCount) {
+        long waitNanos = reserve(node, acquireCount);
+        if (waitNanos < 0) {
+            return false;
+        }
+        return waitNanos == 0 || await(waitNanos);
+    }
 
-        // 按照斜率来计算计划中应该什么时候通过
-        long currentTime = TimeUtil.currentTimeMillis();
-
-        long costTime = Math.round(1.0 * (acquireCount) / count * 1000);
-
-        //期待时间
-        long expectedTime = costTime + latestPassedTime.get();
+    /**
+     * Same as {@link #canPass(Node, int)}, except that an {@link AsyncEntry} which lets the pass time be
+     * reserved does not wait, see {@link AsyncEntry#isPassReservable()}: the pass time is recorded on the entry
+     * by {@link AsyncEntry#postponePass(long)} and the entry passes at once. Any other entry waits as usual.
+     *
+     * @param node         the node to check
+     * @param acquireCount tokens to acquire
+     * @param entry        the entry being checked
+     * @return true if the request can pass
+     */
+    @Override
+    public boolean canPass(Node node, int acquireCount, Entry entry) {
+        if (!(entry instanceof AsyncEntry) || !((AsyncEntry)entry).isPassReservable()) {
+            return canPass(node, acquireCount);
+        }
+        long waitNanos = reserve(node, acquireCount);
+        if (waitNanos < 0) {
+            return false;
+        }
+        if (waitNanos > 0) {
+            ((AsyncEntry)entry).postponePass(waitNanos);
+        }
+        return true;
+    }
 
-        if (expectedTime <= currentTime) {
-            //这里会有冲突,然而冲突就冲突吧.
-            latestPassedTime.set(currentTime);
-            return true;
-        } else {
-            // 计算自己需要的等待时间
-            long waitTime = costTime + latestPassedTime.get() - TimeUtil.currentTimeMillis();
-            if (waitTime >= maxQueueingTimeMs) {
-                return false;
+    /**
+     * Reserve the pass time of a request without waiting for it.
+     *
+     * @param node         the node to check
+     * @param acquireCount tokens to acquire
+     * @return nanoseconds to wait for the reserved pass time, 0 if the request can pass now, or -1 if it would
+     * wait longer than the max queueing time and nothing is reserved
+     */
+    public long reserve(Node node, int acquireCount) {
+        long costNanos = costNanos(node, acquireCount);
+        if (costNanos < 0) {
+            return -1;
+        }
+        while (true) {
+            long currentTime = TimeUtil.nanoTime();
+            long latestTime = latestPassedTime.get();
+            // 期待时间
+            long expectedTime = latestTime + costNanos;
+            if (expectedTime - currentTime <= 0) {
+                if (latestPassedTime.compareAndSet(latestTime, currentTime)) {
+                    return 0;
+                }
             } else {
-                long oldTime = latestPassedTime.addAndGet(costTime);
-                try {
-                    waitTime = oldTime - TimeUtil.currentTimeMillis();
-                    if (waitTime >= maxQueueingTimeMs) {
-                        latestPassedTime.addAndGet(-costTime);
-                        return false;
-                    }
-                    Thread.sleep(waitTime);
-                    return true;
-                } catch (InterruptedException e) {
+                long waitNanos = expectedTime - currentTime;
+                if (waitNanos >= maxQueueingTimeNanos) {
+                    return -1;
+                }
+                if (latestPassedTime.compareAndSet(latestTime, expectedTime)) {
+                    return waitNanos;
                 }
             }
         }
+    }
 
-        return false;
+    /**
+     * Get the interval a request takes from the next one.
+     *
+     * @param node         the node to check
+     * @param acquireCount tokens to acquire
+     * @return the interval in nanoseconds, or -1 if no request may pass
+     */
+    protected long costNanos(Node node, int acquireCount) {
+        if (count <= 0) {
+            return -1;
+        }
+        return Math.round(acquireCount * NANOS_PER_SECOND / count);
     }
 
+    private static boolean await(long waitNanos) {
+        try {
+            if (PARK) {
+                TimeUtil.sleepNanos(waitNanos);
+            } else {
+                // Rounded up, a wait below a millisecond must not end before its pass time.
+                TimeUtil.sleep((waitNanos + NANOS_PER_MILLI - 1) / NANOS_PER_MILLI);
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Take over the state of the controller of a former rule, so that a reloaded rule keeps the pace of
+     * the requests already passed instead of letting a burst through.
+     *
+     * @param former controller of the former rule
+     */
+    public void inheritState(PaceController former) {
+        latestPassedTime.set(former.latestPassedTime.get());
+    }
 }
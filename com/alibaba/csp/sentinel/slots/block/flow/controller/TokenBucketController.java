@@ -0,0 +1,117 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.block.flow.controller;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.alibaba.csp.sentinel.node.Node;
+import com.alibaba.csp.sentinel.slots.block.flow.Controller;
+import com.alibaba.csp.sentinel.util.TimeUtil;
+
+/**
+ * <p>
+ * A token bucket enforcing the QPS threshold exactly, for
+ * {@link com.alibaba.csp.sentinel.slots.block.RuleConstant#CONTROL_BEHAVIOR_TOKEN_BUCKET}.
+ * </p>
+ * <p>
+ * The bucket holds up to {@code burst} tokens and is refilled continuously at {@code count} tokens per
+ * second, measured with {@link TimeUtil#nanoTime()}, so a token is back as soon as its share of a second has
+ * passed instead of when a window bucket rolls over. The only state is the time at which the bucket is empty,
+ * moved forward by CAS for every token taken, so concurrent requests can never take more tokens than the
+ * bucket holds, unlike the check-then-act of {@link DefaultController} on the statistics of the node.
+ * </p>
+ * <p>
+ * The node is not used: all requests of the rule take from the same bucket. Rules with this behavior must
+ * therefore use {@link com.alibaba.csp.sentinel.slots.block.RuleConstant#STRATEGY_DIRECT}.
+ * </p>
+ */
+public class TokenBucketController implements Controller {
+
+    private static final long MAX_CAPACITY_NANOS = Long.MAX_VALUE / 4;
+
+    /**
+     * Refill time of a token, 0 if the threshold is 0 and no request passes.
+     */
+    private final long nanosPerToken;
+    private final long capacityNanos;
+    /**
+     * The {@link TimeUtil#nanoTime()} at which the bucket is empty. The bucket holds
+     * {@code (now - emptyTime) / nanosPerToken} tokens, capped to its capacity.
+     */
+    private final AtomicLong emptyTime;
+
+    /**
+     * @param count max tokens per second
+     * @param burst max tokens held in the bucket, 0 or below for {@code count}
+     */
+    public TokenBucketController(double count, double burst) {
+        this.nanosPerToken = count > 0
+            ? Math.min(MAX_CAPACITY_NANOS, Math.max(1, Math.round(TimeUnit.SECONDS.toNanos(1) / count))) : 0;
+        double capacity = Math.max(1, burst > 0 ? burst : count);
+        this.capacityNanos = (long)Math.min(MAX_CAPACITY_NANOS, capacity * nanosPerToken);
+        // The bucket starts full.
+        this.emptyTime = new AtomicLong(TimeUtil.nanoTime() - capacityNanos);
+    }
+
+    @Override
+    public boolean canPass(Node node, int acquireCount) {
+        if (nanosPerToken == 0) {
+            return false;
+        }
+        // Checked before multiplying, as the cost of a large count may overflow for a low threshold.
+        if (acquireCount > capacityNanos / nanosPerToken) {
+            return false;
+        }
+        long cost = acquireCount * nanosPerToken;
+        while (true) {
+            long now = TimeUtil.nanoTime();
+            long oldEmptyTime = emptyTime.get();
+            // Tokens beyond the capacity are dropped.
+            long newEmptyTime = Math.max(oldEmptyTime, now - capacityNanos) + cost;
+            if (newEmptyTime - now > 0) {
+                return false;
+            }
+            if (emptyTime.compareAndSet(oldEmptyTime, newEmptyTime)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Get the tokens left in the bucket, i.e. how many more requests may pass right now.
+     *
+     * @return count of available tokens
+     */
+    public long availableTokens() {
+        if (nanosPerToken == 0) {
+            return 0;
+        }
+        long now = TimeUtil.nanoTime();
+        return Math.min(now - emptyTime.get(), capacityNanos) / nanosPerToken;
+    }
+
+    /**
+     * Take over the state of the controller of a former rule, so that reloading a rule does not fill the
+     * bucket again.
+     *
+     * @param former controller of the former rule
+     */
+    public void inheritState(TokenBucketController former) {
+        long tokens = Math.min(former.availableTokens(), capacityNanos / Math.max(1, nanosPerToken));
+        emptyTime.set(TimeUtil.nanoTime() - tokens * nanosPerToken);
+    }
+}
@@ -109,6 +109,17 @@ public class WarmUpController implements Controller {
     public boolean canPass(Node node, int acquireCount) {
         long passQps = node.passQps();
 
+        return passQps + acquireCount <= warmQps(node);
+    }
+
+    /**
+     * Get the QPS allowed now, which rises from {@code count / coldFactor} to {@code count} as the stored
+     * tokens are used up.
+     *
+     * @param node the node to check
+     * @return the allowed QPS
+     */
+    double warmQps(Node node) {
         long previousQps = node.previousPassQps();
         syncToken(previousQps);
 
@@ -119,17 +130,9 @@ public class WarmUpController implements Controller {
             long aboveToken = restToken - warningToken;
             // 消耗的速度要比warning快，但是要比慢
             // current interval = restToken*slope+1/count
-            double warningQps = Math.nextUp(1.0 / (aboveToken * slope + 1.0 / count));
-            if (passQps + acquireCount <= warningQps) {
-                return true;
-            }
-        } else {
-            if (passQps + acquireCount <= count) {
-                return true;
-            }
+            return Math.nextUp(1.0 / (aboveToken * slope + 1.0 / count));
         }
-
-        return false;
+        return count;
     }
 
     private void syncToken(long passQps) {
@@ -169,4 +172,18 @@ public class WarmUpController implements Controller {
         return Math.min(newValue, maxToken);
     }
 
+    /**
+     * Take over the state of the controller of a former rule, so that a reloaded rule does not start cold
+     * again. The stored tokens are scaled to the token range of this controller.
+     *
+     * @param former controller of the former rule
+     */
+    public void inheritState(WarmUpController former) {
+        long tokens = former.storedTokens.get();
+        if (former.maxToken > 0 && former.maxToken != maxToken) {
+            tokens = (long)((double)tokens * maxToken / former.maxToken);
+        }
+        storedTokens.set(Math.max(0, Math.min(tokens, maxToken)));
+        lastFilledTime.set(former.lastFilledTime.get());
+    }
 }
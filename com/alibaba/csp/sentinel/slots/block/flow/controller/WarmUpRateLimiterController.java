@@ -0,0 +1,62 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.block.flow.controller;
+
+import java.util.concurrent.TimeUnit;
+
+import com.alibaba.csp.sentinel.node.Node;
+
+/**
+ * <p>
+ * A rate limiter whose rate follows the warm-up curve of {@link WarmUpController}, for
+ * {@link com.alibaba.csp.sentinel.slots.block.RuleConstant#CONTROL_BEHAVIOR_WARM_UP_RATE_LIMITER}.
+ * </p>
+ * <p>
+ * After a cold period requests are paced at {@code count / coldFactor} QPS, and the interval shrinks along
+ * the token slope of the warm-up period until it reaches {@code 1 / count}. Unlike the warm-up behavior,
+ * requests are spread evenly over each second instead of passing in a burst until the second is used up.
+ * </p>
+ */
+public class WarmUpRateLimiterController extends PaceController {
+
+    private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final WarmUpController warmUp;
+
+    public WarmUpRateLimiterController(double count, int warmUpPeriodSec, int timeOutMs, int coldFactor) {
+        super(timeOutMs, count);
+        this.warmUp = new WarmUpController(count, warmUpPeriodSec, coldFactor);
+    }
+
+    @Override
+    protected long costNanos(Node node, int acquireCount) {
+        double qps = warmUp.warmQps(node);
+        if (qps <= 0) {
+            return -1;
+        }
+        return Math.round(acquireCount * NANOS_PER_SECOND / qps);
+    }
+
+    /**
+     * Take over the state of the controller of a former rule, both its pace and its warm-up tokens.
+     *
+     * @param former controller of the former rule
+     */
+    public void inheritState(WarmUpRateLimiterController former) {
+        super.inheritState(former);
+        warmUp.inheritState(former.warmUp);
+    }
+}
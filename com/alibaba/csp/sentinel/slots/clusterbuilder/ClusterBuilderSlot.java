@@ -22,11 +22,17 @@ import com.alibaba.csp.sentinel.context.ContextUtil;
 import com.alibaba.csp.sentinel.node.*;
 import com.alibaba.csp.sentinel.slotchain.AbstractLinkedProcessorSlot;
 import com.alibaba.csp.sentinel.slotchain.ProcessorSlotChain;
+import com.alibaba.csp.sentinel.slotchain.RegisteredResource;
+import com.alibaba.csp.sentinel.slotchain.ResourceRegistry;
 import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
-import com.alibaba.csp.sentinel.slotchain.StringResourceWrapper;
+import com.alibaba.csp.sentinel.slots.block.BlockException;
 
-import java.util.HashMap;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
 
 /**
  * <p>
@@ -53,25 +59,18 @@ public class ClusterBuilderSlot extends AbstractLinkedProcessorSlot<DefaultNode>
      * </p>
      * <p>
      * To get total statistics of the same resource in different context, same resource
-     * shares the same {@link ClusterNode} globally. All {@link ClusterNode}s are cached
-     * in this map.
-     * </p>
-     * <p>
-     * The longer the application runs, the more stable this mapping will
-     * become. so we don't concurrent map but a lock. as this lock only happens
-     * at the very beginning while concurrent map will hold the lock all the
-     * time
+     * shares the same {@link ClusterNode} globally. All {@link ClusterNode}s are kept by
+     * their {@link RegisteredResource} in the {@link ResourceRegistry}.
      * </p>
      */
-    private static volatile Map<ResourceWrapper, ClusterNode> clusterNodeMap
-        = new HashMap<ResourceWrapper, ClusterNode>();
-
     private static final Object lock = new Object();
 
+    private static final Map<ResourceWrapper, ClusterNode> CLUSTER_NODE_MAP = new ClusterNodeMapView();
+
     private ClusterNode clusterNode = null;
 
     /**
-     * 创建clusterNode，并更新clusterNodeMap
+     * 创建clusterNode，并登记到ResourceRegistry中对应的资源上
      * 设置资源节点node的clusterNode
      * clusterNode主要用于通过父类的方式进行QPS、异常、线程数等统计。
      * 如果origin不为空，clusterNode则创建originNode节点，originNode实际是{@link com.alibaba.csp.sentinel.node.StatisticNode}类型
@@ -86,16 +85,28 @@ public class ClusterBuilderSlot extends AbstractLinkedProcessorSlot<DefaultNode>
     @Override
     public void entry(Context context, ResourceWrapper resourceWrapper, DefaultNode node, int count, Object... args)
         throws Throwable {
+        buildClusterNode(context, resourceWrapper, node);
+        fireEntry(context, resourceWrapper, node, count, args);
+    }
+
+    @Override
+    public BlockException tryEntry(Context context, ResourceWrapper resourceWrapper, DefaultNode node, int count,
+                                   Object... args) throws Throwable {
+        buildClusterNode(context, resourceWrapper, node);
+        return fireTryEntry(context, resourceWrapper, node, count, args);
+    }
+
+    private void buildClusterNode(Context context, ResourceWrapper resourceWrapper, DefaultNode node) {
         if (clusterNode == null) {
             synchronized (lock) {
                 if (clusterNode == null) {
                     // Create the cluster node.
                     clusterNode = Env.nodeBuilder.buildClusterNode();
-                    HashMap<ResourceWrapper, ClusterNode> newMap = new HashMap<ResourceWrapper, ClusterNode>(16);
-                    newMap.putAll(clusterNodeMap);
-                    newMap.put(node.getId(), clusterNode);
-
-                    clusterNodeMap = newMap;
+                    WindowConfigManager.applyWindow(clusterNode, resourceWrapper.getName());
+                    RegisteredResource resource = ResourceRegistry.register(node.getId());
+                    if (resource != null) {
+                        resource.setClusterNode(clusterNode);
+                    }
                 }
             }
         }
@@ -109,8 +120,6 @@ public class ClusterBuilderSlot extends AbstractLinkedProcessorSlot<DefaultNode>
             Node originNode = node.getClusterNode().getOriginNode(context.getOrigin());
             context.getCurEntry().setOriginNode(originNode);
         }
-
-        fireEntry(context, resourceWrapper, node, count, args);
     }
 
 
@@ -127,14 +136,15 @@ public class ClusterBuilderSlot extends AbstractLinkedProcessorSlot<DefaultNode>
     }
 
     /**
-     * Get {@link ClusterNode} of the resource of the specific type.
+     * Get {@link ClusterNode} of the resource of the specific type. Same as {@link ResourceWrapper#equals(Object)},
+     * resources are identified by name only, so the type does not take part in the lookup.
      *
      * @param id   resource name.
      * @param type invoke type.
      * @return the {@link ClusterNode}
      */
     public static ClusterNode getClusterNode(String id, EntryType type) {
-        return clusterNodeMap.get(new StringResourceWrapper(id, type));
+        return getClusterNode(id);
     }
 
     /**
@@ -149,39 +159,107 @@ public class ClusterBuilderSlot extends AbstractLinkedProcessorSlot<DefaultNode>
      * @return
      */
     public static ClusterNode getClusterNode(String id) {
-        if (id == null) {
-            return null;
-        }
-        ClusterNode clusterNode = null;
-
-        for (EntryType nodeType : EntryType.values()) {
-            clusterNode = clusterNodeMap.get(new StringResourceWrapper(id, nodeType));
-            if (clusterNode != null) {
-                break;
-            }
-        }
-
-        return clusterNode;
+        RegisteredResource resource = ResourceRegistry.get(id);
+        return resource == null ? null : resource.getClusterNode();
     }
 
     /**
      * Get {@link ClusterNode}s map, this map holds all {@link ClusterNode}s, it's key is resource name,
      * value is the related {@link ClusterNode}. <br/>
-     * DO NOT MODIFY the map returned.
+     * The map is an unmodifiable live view of the {@link ResourceRegistry}: getting it costs nothing,
+     * {@link Map#get(Object)} is a lookup by name, and iterating it walks the registry, so {@link Map#size()}
+     * is not constant-time. Resources registered or removed while iterating may or may not be seen.
      *
      * @return all {@link ClusterNode}s
      */
     public static Map<ResourceWrapper, ClusterNode> getClusterNodeMap() {
-        return clusterNodeMap;
+        return CLUSTER_NODE_MAP;
     }
 
     /**
-     * Reset all {@link ClusterNode}s. Reset is needed when {@link IntervalProperty#INTERVAL} or
-     * {@link SampleCountProperty#SAMPLE_COUNT} is changed.
+     * Reset all {@link ClusterNode}s, dropping their second-level counts. Changes of {@link IntervalProperty#INTERVAL}
+     * or {@link SampleCountProperty#SAMPLE_COUNT} are applied by {@link WindowConfigManager#refreshNodes()}.
      */
     public static void resetClusterNodes() {
-        for (ClusterNode node : clusterNodeMap.values()) {
-            node.reset();
+        for (int id = 0; id < ResourceRegistry.size(); id++) {
+            RegisteredResource resource = ResourceRegistry.get(id);
+            ClusterNode node = resource == null ? null : resource.getClusterNode();
+            if (node != null) {
+                node.reset();
+            }
+        }
+    }
+
+    private static final class ClusterNodeMapView extends AbstractMap<ResourceWrapper, ClusterNode> {
+
+        private final Set<Map.Entry<ResourceWrapper, ClusterNode>> entrySet
+            = new AbstractSet<Map.Entry<ResourceWrapper, ClusterNode>>() {
+
+            @Override
+            public Iterator<Map.Entry<ResourceWrapper, ClusterNode>> iterator() {
+                return new ClusterNodeIterator();
+            }
+
+            @Override
+            public int size() {
+                int size = 0;
+                for (Iterator<?> it = iterator(); it.hasNext(); it.next()) {
+                    size++;
+                }
+                return size;
+            }
+        };
+
+        @Override
+        public Set<Map.Entry<ResourceWrapper, ClusterNode>> entrySet() {
+            return entrySet;
+        }
+
+        @Override
+        public ClusterNode get(Object key) {
+            return key instanceof ResourceWrapper ? getClusterNode(((ResourceWrapper)key).getName()) : null;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return get(key) != null;
+        }
+    }
+
+    private static final class ClusterNodeIterator implements Iterator<Map.Entry<ResourceWrapper, ClusterNode>> {
+
+        private int nextId = 0;
+        private Map.Entry<ResourceWrapper, ClusterNode> next = advance();
+
+        private Map.Entry<ResourceWrapper, ClusterNode> advance() {
+            while (nextId < ResourceRegistry.size()) {
+                RegisteredResource resource = ResourceRegistry.get(nextId++);
+                ClusterNode node = resource == null ? null : resource.getClusterNode();
+                if (node != null) {
+                    return new AbstractMap.SimpleImmutableEntry<ResourceWrapper, ClusterNode>(resource.getResource(), node);
+                }
+            }
+            return null;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public Map.Entry<ResourceWrapper, ClusterNode> next() {
+            Map.Entry<ResourceWrapper, ClusterNode> entry = next;
+            if (entry == null) {
+                throw new NoSuchElementException();
+            }
+            next = advance();
+            return entry;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
         }
     }
 }
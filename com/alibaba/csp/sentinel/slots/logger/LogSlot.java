@@ -34,8 +34,7 @@ public class LogSlot extends AbstractLinkedProcessorSlot<DefaultNode> {
         try {
             fireEntry(context, resourceWrapper, obj, count, args);
         } catch (BlockException e) {
-            EagleEyeLogUtil.log(resourceWrapper.getName(), e.getClass().getSimpleName(), e.getRuleLimitApp(),
-                context.getOrigin(), count);
+            logBlock(context, resourceWrapper, e, count);
             throw e;
         } catch (Throwable e) {
             RecordLog.info("Entry exception", e);
@@ -43,6 +42,21 @@ public class LogSlot extends AbstractLinkedProcessorSlot<DefaultNode> {
 
     }
 
+    @Override
+    public BlockException tryEntry(Context context, ResourceWrapper resourceWrapper, DefaultNode obj, int count,
+                                   Object... args) throws Throwable {
+        try {
+            BlockException e = fireTryEntry(context, resourceWrapper, obj, count, args);
+            if (e != null) {
+                logBlock(context, resourceWrapper, e, count);
+            }
+            return e;
+        } catch (Throwable e) {
+            RecordLog.info("Entry exception", e);
+            return null;
+        }
+    }
+
     @Override
     public void exit(Context context, ResourceWrapper resourceWrapper, int count, Object... args) {
         try {
@@ -51,4 +65,9 @@ public class LogSlot extends AbstractLinkedProcessorSlot<DefaultNode> {
             RecordLog.info("Entry exit exception", e);
         }
     }
+
+    private void logBlock(Context context, ResourceWrapper resourceWrapper, BlockException e, int count) {
+        EagleEyeLogUtil.log(resourceWrapper.getName(), e.getClass().getSimpleName(), e.getRuleLimitApp(),
+            context.getOrigin(), count);
+    }
 }
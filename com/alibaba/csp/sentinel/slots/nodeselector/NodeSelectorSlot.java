@@ -21,8 +21,10 @@ import com.alibaba.csp.sentinel.context.ContextUtil;
 import com.alibaba.csp.sentinel.node.ClusterNode;
 import com.alibaba.csp.sentinel.node.DefaultNode;
 import com.alibaba.csp.sentinel.node.EntranceNode;
+import com.alibaba.csp.sentinel.node.WindowConfigManager;
 import com.alibaba.csp.sentinel.slotchain.AbstractLinkedProcessorSlot;
 import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
+import com.alibaba.csp.sentinel.slots.block.BlockException;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -163,12 +165,25 @@ public class NodeSelectorSlot extends AbstractLinkedProcessorSlot<Object> {
          * The answer is all {@link DefaultNode}s with same resource name share one
          * {@link ClusterNode}. See {@link ClusterBuilderSlot} for detail.
          */
+        DefaultNode node = selectNode(context, resourceWrapper);
+        fireEntry(context, resourceWrapper, node, count, args);
+    }
+
+    @Override
+    public BlockException tryEntry(Context context, ResourceWrapper resourceWrapper, Object obj, int count,
+                                   Object... args) throws Throwable {
+        DefaultNode node = selectNode(context, resourceWrapper);
+        return fireTryEntry(context, resourceWrapper, node, count, args);
+    }
+
+    private DefaultNode selectNode(Context context, ResourceWrapper resourceWrapper) {
         DefaultNode node = map.get(context.getName());
         if (node == null) {
             synchronized (this) {
                 node = map.get(context.getName());
                 if (node == null) {
                     node = Env.nodeBuilder.buildTreeNode(resourceWrapper, null);
+                    WindowConfigManager.applyWindow(node, resourceWrapper.getName());
                     HashMap<String, DefaultNode> cacheMap = new HashMap<String, DefaultNode>(map.size());
                     cacheMap.putAll(map);
                     cacheMap.put(context.getName(), node);
@@ -180,7 +195,7 @@ public class NodeSelectorSlot extends AbstractLinkedProcessorSlot<Object> {
         }
 
         context.setCurNode(node);
-        fireEntry(context, resourceWrapper, node, count, args);
+        return node;
     }
 
     /**
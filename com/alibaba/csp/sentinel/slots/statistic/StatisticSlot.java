@@ -25,7 +25,7 @@ import com.alibaba.csp.sentinel.slotchain.ProcessorSlotEntryCallback;
 import com.alibaba.csp.sentinel.slotchain.ProcessorSlotExitCallback;
 import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
 import com.alibaba.csp.sentinel.slots.block.BlockException;
-import com.alibaba.csp.sentinel.util.TimeUtil;
+import com.alibaba.csp.sentinel.util.RtUtil;
 
 import java.util.Collection;
 
@@ -62,90 +62,128 @@ public class StatisticSlot extends AbstractLinkedProcessorSlot<DefaultNode> {
              */
             fireEntry(context, resourceWrapper , node, count, args);
 
-            /*
-             * 计算资源节点（DefaultNode）的线程数和通过的请求数
-             * 线程数直接加1
-             * 请求数需要在当前时间窗口加1，具体实现是参考ArrayMetric
-             */
-            node.increaseThreadNum();
-            node.addPassRequest();
-
-            if (context.getCurEntry().getOriginNode() != null) {
-                /*
-                 * 计算调用者节点的线程数和通过请求
-                 */
-                context.getCurEntry().getOriginNode().increaseThreadNum();
-                context.getCurEntry().getOriginNode().addPassRequest();
-            }
-
-            if (resourceWrapper.getType() == EntryType.IN) {
-                Constants.ENTRY_NODE.increaseThreadNum();
-                Constants.ENTRY_NODE.addPassRequest();
-            }
+            onPass(context, resourceWrapper, node, count, args);
+        } catch (BlockException e) {
+            onBlocked(context, resourceWrapper, node, e, count, args);
+            throw e;
+        } catch (Throwable e) {
+            onError(context, resourceWrapper, node, e, count);
+            throw e;
+        }
+    }
 
-            /*
-             * pass回调
-             * 所有的回调实例都会被执行
-             * 我们可以通过继承ProcessorSlotEntryCallback来实现我们的pass和block回调逻辑，通过StatisticSlotCallbackRegistry来注册回调实例
-             * 由于每次request的onPass都会回调所有的已注册的callback实例，所以我们应该尽量避免callback实现太耗时的逻辑
-             * 如果有特定业务的回调最好还是在回调方法根据参数做隔离
-             */
-            for (ProcessorSlotEntryCallback<DefaultNode> handler : StatisticSlotCallbackRegistry.getEntryCallbacks()) {
-                handler.onPass(context, resourceWrapper, node, count, args);
+    /**
+     * Same as {@link #entry(Context, ResourceWrapper, DefaultNode, int, Object...)}, but a block of the following
+     * slots is counted and returned without being thrown.
+     */
+    @Override
+    public BlockException tryEntry(Context context, ResourceWrapper resourceWrapper, DefaultNode node, int count,
+                                   Object... args) throws Throwable {
+        BlockException blockException;
+        try {
+            blockException = fireTryEntry(context, resourceWrapper, node, count, args);
+            if (blockException == null) {
+                onPass(context, resourceWrapper, node, count, args);
+                return null;
             }
         } catch (BlockException e) {
+            // A pass callback may block as well.
+            blockException = e;
+        } catch (Throwable e) {
+            onError(context, resourceWrapper, node, e, count);
+            throw e;
+        }
+        onBlocked(context, resourceWrapper, node, blockException, count, args);
+        return blockException;
+    }
+
+    private void onPass(Context context, ResourceWrapper resourceWrapper, DefaultNode node, int count,
+                        Object... args) throws Exception {
+        /*
+         * 计算资源节点（DefaultNode）的线程数和通过的请求数
+         * 线程数直接加1
+         * 请求数需要在当前时间窗口加1，具体实现是参考ArrayMetric
+         */
+        node.increaseThreadNum();
+        node.addPassRequest(count);
+
+        if (context.getCurEntry().getOriginNode() != null) {
             /*
-             * 限流或者降级都会抛出BlockException
-             * 此处记录异常统计和失败次数统计
+             * 计算调用者节点的线程数和通过请求
              */
+            context.getCurEntry().getOriginNode().increaseThreadNum();
+            context.getCurEntry().getOriginNode().addPassRequest(count);
+        }
 
-            context.getCurEntry().setError(e);
+        if (resourceWrapper.getType() == EntryType.IN) {
+            Constants.ENTRY_NODE.increaseThreadNum();
+            Constants.ENTRY_NODE.addPassRequest(count);
+        }
 
-            // Add block count.
-            node.increaseBlockQps();
-            if (context.getCurEntry().getOriginNode() != null) {
-                context.getCurEntry().getOriginNode().increaseBlockQps();
+        /*
+         * pass回调
+         * 所有的回调实例都会被执行
+         * 我们可以通过继承ProcessorSlotEntryCallback来实现我们的pass和block回调逻辑，通过StatisticSlotCallbackRegistry来注册回调实例
+         * 由于每次request的onPass都会回调所有的已注册的callback实例，所以我们应该尽量避免callback实现太耗时的逻辑
+         * 如果有特定业务的回调最好还是在回调方法根据参数做隔离
+         */
+        // Skip the iterator allocation when no callback is registered, which is the common case.
+        Collection<ProcessorSlotEntryCallback<DefaultNode>> entryCallbacks
+            = StatisticSlotCallbackRegistry.getEntryCallbacks();
+        if (!entryCallbacks.isEmpty()) {
+            for (ProcessorSlotEntryCallback<DefaultNode> handler : entryCallbacks) {
+                handler.onPass(context, resourceWrapper, node, count, args);
             }
+        }
+    }
 
-            if (resourceWrapper.getType() == EntryType.IN) {
-                Constants.ENTRY_NODE.increaseBlockQps();
-            }
+    private void onBlocked(Context context, ResourceWrapper resourceWrapper, DefaultNode node, BlockException e,
+                           int count, Object... args) {
+        context.getCurEntry().setError(e);
 
-            //失败回调，参考onPass回调
-            for (ProcessorSlotEntryCallback<DefaultNode> handler : StatisticSlotCallbackRegistry.getEntryCallbacks()) {
-                handler.onBlocked(e, context, resourceWrapper, node, count, args);
-            }
+        // Add block count.
+        node.increaseBlockQps(count);
+        if (context.getCurEntry().getOriginNode() != null) {
+            context.getCurEntry().getOriginNode().increaseBlockQps(count);
+        }
 
-            throw e;
-        } catch (Throwable e) {
-            /*
-             * 非BlockException异常情况统计
-             */
+        if (resourceWrapper.getType() == EntryType.IN) {
+            Constants.ENTRY_NODE.increaseBlockQps(count);
+        }
 
-            context.getCurEntry().setError(e);
+        //失败回调，参考onPass回调
+        for (ProcessorSlotEntryCallback<DefaultNode> handler : StatisticSlotCallbackRegistry.getEntryCallbacks()) {
+            handler.onBlocked(e, context, resourceWrapper, node, count, args);
+        }
+    }
 
-            // Should not happen
-            /**
-             * 此处的Throwable不会触发？
-             * 如果是自己实现回调逻辑，是有可能会抛出异常的，
-             * 如果此处的catch被触发到，那么{@link StatisticNode#totalRequest()}就不是正确的，正确的应该是totalRequest=pass+block+exception
-             */
-            node.increaseExceptionQps();
-            if (context.getCurEntry().getOriginNode() != null) {
-                context.getCurEntry().getOriginNode().increaseExceptionQps();
-            }
+    private void onError(Context context, ResourceWrapper resourceWrapper, DefaultNode node, Throwable e, int count) {
+        /*
+         * 非BlockException异常情况统计
+         */
+
+        context.getCurEntry().setError(e);
+
+        // Should not happen
+        /**
+         * 此处的Throwable不会触发？
+         * 如果是自己实现回调逻辑，是有可能会抛出异常的，
+         * 如果此处的catch被触发到，那么{@link StatisticNode#totalRequest()}就不是正确的，正确的应该是totalRequest=pass+block+exception
+         */
+        node.increaseExceptionQps(count);
+        if (context.getCurEntry().getOriginNode() != null) {
+            context.getCurEntry().getOriginNode().increaseExceptionQps(count);
+        }
 
-            if (resourceWrapper.getType() == EntryType.IN) {
-                Constants.ENTRY_NODE.increaseExceptionQps();
-            }
-            throw e;
+        if (resourceWrapper.getType() == EntryType.IN) {
+            Constants.ENTRY_NODE.increaseExceptionQps(count);
         }
     }
 
 
     /**
      * 主要计算rt和减少node的线程数
-     * rt的计算包含了success请求的计数和执行时间的累计，参考{@link com.alibaba.csp.sentinel.node.StatisticNode#rt(long)}
+     * rt的计算包含了success请求的计数和执行时间的累计，参考{@link com.alibaba.csp.sentinel.node.StatisticNode#rt(long, int)}
      * @param context         current {@link Context}
      * @param resourceWrapper current resource
      * @param count           tokens needed
@@ -156,14 +194,11 @@ public class StatisticSlot extends AbstractLinkedProcessorSlot<DefaultNode> {
         DefaultNode node = (DefaultNode)context.getCurNode();
 
         if (context.getCurEntry().getError() == null) {
-            long rt = TimeUtil.currentTimeMillis() - context.getCurEntry().getCreateTime();
-            if (rt > Constants.TIME_DROP_VALVE) {
-                rt = Constants.TIME_DROP_VALVE;
-            }
+            long rt = RtUtil.rtSince(context.getCurEntry().getCreateTime(), context.getCurEntry().getCreateNanoTime());
 
-            node.rt(rt);
+            node.rt(rt, count);
             if (context.getCurEntry().getOriginNode() != null) {
-                context.getCurEntry().getOriginNode().rt(rt);
+                context.getCurEntry().getOriginNode().rt(rt, count);
             }
 
             node.decreaseThreadNum();
@@ -173,7 +208,7 @@ public class StatisticSlot extends AbstractLinkedProcessorSlot<DefaultNode> {
             }
 
             if (resourceWrapper.getType() == EntryType.IN) {
-                Constants.ENTRY_NODE.rt(rt);
+                Constants.ENTRY_NODE.rt(rt, count);
                 Constants.ENTRY_NODE.decreaseThreadNum();
             }
         } else {
@@ -182,10 +217,12 @@ public class StatisticSlot extends AbstractLinkedProcessorSlot<DefaultNode> {
 
         //执行exit回调，类似于entry回调（ProcessorSlotEntryCallback）
         Collection<ProcessorSlotExitCallback> exitCallbacks = StatisticSlotCallbackRegistry.getExitCallbacks();
-        for (ProcessorSlotExitCallback handler : exitCallbacks) {
-            handler.onExit(context, resourceWrapper, count, args);
+        if (!exitCallbacks.isEmpty()) {
+            for (ProcessorSlotExitCallback handler : exitCallbacks) {
+                handler.onExit(context, resourceWrapper, count, args);
+            }
         }
 
-        fireExit(context, resourceWrapper, count);
+        fireExit(context, resourceWrapper, count, args);
     }
 }
@@ -20,7 +20,6 @@ import com.alibaba.csp.sentinel.util.TimeUtil;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicReferenceArray;
-import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * <p>
@@ -56,8 +55,6 @@ public abstract class LeapArray<T> {
 
     protected final AtomicReferenceArray<WindowWrap<T>> array;
 
-    private final ReentrantLock updateLock = new ReentrantLock();
-
     /**
      * The total bucket count is: {@link #sampleCount} = intervalInSec * 1000 / windowLengthInMs.
      * @param windowLengthInMs a single window bucket's time length in milliseconds.
@@ -87,18 +84,14 @@ public abstract class LeapArray<T> {
      */
     public abstract T newEmptyBucket();
 
-    /**
-     * Reset current window to provided start time and reset all counters.
-     *
-     * @param startTime  the start time of the window
-     * @param windowWrap current window
-     * @return new clean window wrap
-     */
-    protected abstract WindowWrap<T> resetWindowTo(WindowWrap<T> windowWrap, long startTime);
-
     /**
      * Get window at provided timestamp.
      *
+     * <p>A stale window is never reset in place. Instead a fresh window is published with a single
+     * {@code compareAndSet} on the array slot, so exactly one thread wins each rotation and the others
+     * simply re-read the slot. Increments are therefore never lost or applied to a window that is being
+     * reset, and no thread ever blocks, parks or yields here.</p>
+     *
      * @param time a valid timestamp
      * @return the window at provided timestamp
      */
@@ -123,29 +116,22 @@ public abstract class LeapArray<T> {
                 WindowWrap<T> window = new WindowWrap<T>(windowLengthInMs, time, newEmptyBucket());
                 if (array.compareAndSet(idx, null, window)) {
                     return window;
-                } else {
-                    Thread.yield();
                 }
+                // Another thread has installed the window, re-read it.
             } else if (time == old.windowStart()) {
                 return old;
             }
             /*
-             * 时间起点不对齐则重置数据窗口
-             * 这里没有做二次检查，时间可能会造成多次重置数据窗口
-             * 应该在lock以后，再获取 WindowWrap<T> old = array.get(idx); old，进行time == old.windowStart()
+             * 时间起点不对齐则替换数据窗口
+             * 用CAS把整个WindowWrap替换成新的窗口而不是原地重置，只有一个线程能替换成功，
+             * 失败的线程重新读取即可拿到新窗口，不会出现重复重置丢失计数的问题
              */
             else if (time > old.windowStart()) {
-                if (updateLock.tryLock()) {
-                    try {
-                        // if (old is deprecated) then [LOCK] resetTo currentTime.
-                        return resetWindowTo(old, time);
-                    } finally {
-                        updateLock.unlock();
-                    }
-                } else {
-                    Thread.yield();
+                WindowWrap<T> window = new WindowWrap<T>(windowLengthInMs, time, newEmptyBucket());
+                if (array.compareAndSet(idx, old, window)) {
+                    return window;
                 }
-
+                // Lost the race, the slot now holds a newer window.
             }
             //正常情况下不会执行到这里
             else if (time < old.windowStart()) {
@@ -184,7 +170,7 @@ public abstract class LeapArray<T> {
     }
 
     public WindowWrap<T> getPreviousWindow() {
-        return getPreviousWindow(System.currentTimeMillis());
+        return getPreviousWindow(TimeUtil.currentTimeMillis());
     }
 
     public T getWindowValue(long time) {
@@ -205,7 +191,40 @@ public abstract class LeapArray<T> {
      * @return
      */
     private boolean isWindowDeprecated(WindowWrap<T> windowWrap) {
-        return TimeUtil.currentTimeMillis() - windowWrap.windowStart() >= intervalInMs;
+        return isWindowDeprecated(TimeUtil.currentTimeMillis(), windowWrap);
+    }
+
+    private boolean isWindowDeprecated(long time, WindowWrap<T> windowWrap) {
+        return time - windowWrap.windowStart() >= intervalInMs;
+    }
+
+    /**
+     * Get the window at provided index of the inner array if it is still valid at provided timestamp.
+     * Unlike {@link #values()}, this method does not allocate, so that callers can aggregate
+     * all buckets in a single pass.
+     *
+     * @param idx  index of the inner array, ranges from 0 to {@link #getSampleCount()} - 1
+     * @param time a valid timestamp
+     * @return the valid window at provided index, or null if the window is absent or deprecated
+     */
+    public WindowWrap<T> getValidWindow(int idx, long time) {
+        WindowWrap<T> windowWrap = array.get(idx);
+        if (windowWrap == null || isWindowDeprecated(time, windowWrap)) {
+            return null;
+        }
+        return windowWrap;
+    }
+
+    public int getSampleCount() {
+        return sampleCount;
+    }
+
+    public int getWindowLengthInMs() {
+        return windowLengthInMs;
+    }
+
+    public int getIntervalInMs() {
+        return intervalInMs;
     }
 
     public List<WindowWrap<T>> list() {
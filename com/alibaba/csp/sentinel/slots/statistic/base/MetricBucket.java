@@ -15,93 +15,185 @@
  */
 package com.alibaba.csp.sentinel.slots.statistic.base;
 
-import com.alibaba.csp.sentinel.Constants;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+
+import com.alibaba.csp.sentinel.slots.statistic.MetricEvent;
+import com.alibaba.csp.sentinel.util.RtUtil;
 
 /**
  * Represents metrics data in a period of time window.
  *
+ * <p>All {@link MetricEvent} counters share one {@link StripedCounters} cell table indexed by the
+ * event ordinal, and the min/max RT are maintained with CAS.</p>
+ *
  * @author jialiang.linjl
  * @author Eric Zhao
  */
 public class MetricBucket {
 
-    private final LongAdder pass = new LongAdder();
-    private final LongAdder block = new LongAdder();
-    private final LongAdder exception = new LongAdder();
-    private final LongAdder rt = new LongAdder();
-    private final LongAdder success = new LongAdder();
+    private static final MetricEvent[] EVENTS = MetricEvent.values();
+
+    private static final AtomicLongFieldUpdater<MetricBucket> MIN_RT_UPDATER
+        = AtomicLongFieldUpdater.newUpdater(MetricBucket.class, "minRt");
+    private static final AtomicLongFieldUpdater<MetricBucket> MAX_RT_UPDATER
+        = AtomicLongFieldUpdater.newUpdater(MetricBucket.class, "maxRt");
+
+    private final StripedCounters counters = new StripedCounters(EVENTS.length);
 
     private volatile long minRt;
+    private volatile long maxRt;
+
+    /**
+     * Optional RT distribution, null if disabled.
+     */
+    private final RtHistogram rtHistogram;
 
     public MetricBucket() {
+        this(false);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param rtHistogram whether to record the RT distribution in a {@link RtHistogram}
+     */
+    public MetricBucket(boolean rtHistogram) {
+        this.rtHistogram = rtHistogram ? new RtHistogram() : null;
         initMinRt();
     }
 
     private void initMinRt() {
-        this.minRt = Constants.TIME_DROP_VALVE;
+        this.minRt = RtUtil.MAX_RT;
+        this.maxRt = 0;
     }
 
     /**
-     * Clean the adders and reset window to provided start time.
+     * Clean the counters and reset window to provided start time.
      *
      * @return new clean window
      */
     public MetricBucket reset() {
-        pass.reset();
-        block.reset();
-        exception.reset();
-        rt.reset();
-        success.reset();
+        counters.reset();
         initMinRt();
         return this;
     }
 
+    public long get(MetricEvent event) {
+        return counters.sum(event.ordinal());
+    }
+
+    public MetricBucket add(MetricEvent event, long n) {
+        counters.add(event.ordinal(), n);
+        return this;
+    }
+
     public long pass() {
-        return pass.sum();
+        return get(MetricEvent.PASS);
     }
 
     public long block() {
-        return block.sum();
+        return get(MetricEvent.BLOCK);
     }
 
     public long exception() {
-        return exception.sum();
+        return get(MetricEvent.EXCEPTION);
     }
 
     public long rt() {
-        return rt.sum();
+        return get(MetricEvent.RT);
     }
 
     public long minRt() {
         return minRt;
     }
 
+    public long maxRt() {
+        return maxRt;
+    }
+
     public long success() {
-        return success.sum();
+        return get(MetricEvent.SUCCESS);
+    }
+
+    /**
+     * Get the RT distribution of this bucket.
+     *
+     * @return the RT histogram, or null if it is not enabled
+     */
+    public RtHistogram rtHistogram() {
+        return rtHistogram;
     }
 
     public void addPass() {
-        pass.add(1L);
+        add(MetricEvent.PASS, 1);
     }
 
     public void addException() {
-        exception.add(1L);
+        add(MetricEvent.EXCEPTION, 1);
     }
 
     public void addBlock() {
-        block.add(1L);
+        add(MetricEvent.BLOCK, 1);
     }
 
     public void addSuccess() {
-        success.add(1L);
+        add(MetricEvent.SUCCESS, 1);
     }
 
     public void addRT(long rt) {
-        this.rt.add(rt);
+        addRT(rt, 1);
+    }
+
+    /**
+     * Add the RT of provided count of successes, each taking the same time.
+     *
+     * @param rt    RT of each success
+     * @param count count of successes
+     */
+    public void addRT(long rt, int count) {
+        add(MetricEvent.RT, rt * count);
+        updateRtBounds(rt, rt);
+        if (rtHistogram != null) {
+            rtHistogram.record(rt, count);
+        }
+    }
+
+    /**
+     * Add all counters of provided bucket to this bucket, scaled by provided ratio, and merge its min/max RT.
+     * Used to carry counts over when the window layout changes.
+     *
+     * @param other the bucket to merge
+     * @param ratio part of the counters to add, from 0 to 1
+     * @return this bucket
+     */
+    public MetricBucket add(MetricBucket other, double ratio) {
+        for (MetricEvent event : EVENTS) {
+            long value = other.get(event);
+            if (ratio < 1) {
+                value = Math.round(value * ratio);
+            }
+            if (value != 0) {
+                add(event, value);
+            }
+        }
+        updateRtBounds(other.minRt(), other.maxRt());
+        if (rtHistogram != null && other.rtHistogram != null) {
+            rtHistogram.add(other.rtHistogram, ratio);
+        }
+        return this;
+    }
 
-        // Not thread-safe, but it's okay.
-        if (rt < minRt) {
-            minRt = rt;
+    private void updateRtBounds(long min, long max) {
+        long cur;
+        while (min < (cur = minRt)) {
+            if (MIN_RT_UPDATER.compareAndSet(this, cur, min)) {
+                break;
+            }
+        }
+        while (max > (cur = maxRt)) {
+            if (MAX_RT_UPDATER.compareAndSet(this, cur, max)) {
+                break;
+            }
         }
     }
 }
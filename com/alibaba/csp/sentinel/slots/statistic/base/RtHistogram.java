@@ -0,0 +1,140 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.statistic.base;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * <p>
+ * A fixed-size log-linear histogram of response time, in the manner of HdrHistogram.
+ * </p>
+ * <p>
+ * Values are in the RT unit recorded by statistics, see {@link com.alibaba.csp.sentinel.util.RtUtil}.
+ * Values below {@code 16} are counted exactly. Above that, every power of two is split into
+ * {@code 8} linear sub-buckets, so a recorded value is off by less than 12.5%. {@link #MAX_VALUE} covers
+ * the capped RT in microseconds, and values above it are counted as {@link #MAX_VALUE}. Recording is a
+ * single atomic increment on the bucket of the value and never blocks. The total count is summed on read,
+ * so that recordings of different values share no counter.
+ * </p>
+ */
+public final class RtHistogram {
+
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int LINEAR_LIMIT = SUB_BUCKET_COUNT << 1;
+
+    /**
+     * The largest value which can be told apart from bigger ones.
+     */
+    public static final long MAX_VALUE = (1L << 23) - 1;
+
+    /**
+     * Number of buckets, see {@link #indexOf(long)}.
+     */
+    public static final int BUCKET_COUNT = indexOf(MAX_VALUE) + 1;
+
+    /**
+     * Counts of each bucket.
+     */
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+
+    public void record(long value) {
+        counts.incrementAndGet(indexOf(value));
+    }
+
+    /**
+     * Record provided value as many times as given.
+     *
+     * @param value the value
+     * @param count how many times it was seen
+     */
+    public void record(long value, int count) {
+        counts.addAndGet(indexOf(value), count);
+    }
+
+    /**
+     * Add the counts of provided histogram to this one, scaled by provided ratio.
+     *
+     * @param other the histogram to merge
+     * @param ratio part of the counts to add, from 0 to 1
+     */
+    public void add(RtHistogram other, double ratio) {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            long value = other.count(i);
+            if (ratio < 1) {
+                value = Math.round(value * ratio);
+            }
+            if (value != 0) {
+                counts.addAndGet(i, value);
+            }
+        }
+    }
+
+    /**
+     * Get the count of provided bucket.
+     *
+     * @param index bucket index, ranges from 0 to {@link #BUCKET_COUNT} - 1
+     * @return count of the bucket
+     */
+    public long count(int index) {
+        return counts.get(index);
+    }
+
+    /**
+     * Get the count of all recorded values.
+     *
+     * @return total count
+     */
+    public long totalCount() {
+        long total = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            total += counts.get(i);
+        }
+        return total;
+    }
+
+    /**
+     * Get the index of the bucket which counts provided value.
+     *
+     * @param value the value
+     * @return index of the bucket
+     */
+    public static int indexOf(long value) {
+        if (value < LINEAR_LIMIT) {
+            return value < 0 ? 0 : (int)value;
+        }
+        if (value > MAX_VALUE) {
+            value = MAX_VALUE;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return LINEAR_LIMIT + (shift - 1) * SUB_BUCKET_COUNT + (int)((value >>> shift) - SUB_BUCKET_COUNT);
+    }
+
+    /**
+     * Get the highest value counted by provided bucket.
+     *
+     * @param index bucket index
+     * @return the highest value of the bucket
+     */
+    public static long highestValueOf(int index) {
+        if (index < LINEAR_LIMIT) {
+            return index;
+        }
+        int shift = (index - LINEAR_LIMIT) / SUB_BUCKET_COUNT + 1;
+        long subBucket = (index - LINEAR_LIMIT) % SUB_BUCKET_COUNT + SUB_BUCKET_COUNT;
+        return ((subBucket + 1) << shift) - 1;
+    }
+}
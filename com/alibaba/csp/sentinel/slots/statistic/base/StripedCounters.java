@@ -0,0 +1,157 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.statistic.base;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+/**
+ * <p>
+ * A fixed group of long counters sharing striped cells, as a compact replacement of
+ * one {@link LongAdder} per counter.
+ * </p>
+ * <p>
+ * When there is no contention, all updates are made to the {@code base} array. Upon the first
+ * failed CAS, a table of two stripes is created, and it is doubled on repeated collisions until it
+ * holds one stripe per CPU (rounded up to a power of two), the same way {@link Striped64} grows its
+ * cells. Every stripe holds all counters next to each other, followed by a cache line of padding,
+ * so one update touches one cache line no matter which counter it targets. Growing the table keeps
+ * the existing stripes, so no update is lost. Threads pick a stripe by their per-thread hash code
+ * and rehash on collisions.
+ * </p>
+ */
+final class StripedCounters {
+
+    /**
+     * Longs per cache line, used as padding after the counters of a stripe.
+     */
+    private static final int PAD = 8;
+
+    private static final int MAX_STRIPES = tableSizeFor(Striped64.NCPU);
+
+    private static final AtomicReferenceFieldUpdater<StripedCounters, AtomicLongArray[]> STRIPES_UPDATER
+        = AtomicReferenceFieldUpdater.newUpdater(StripedCounters.class, AtomicLongArray[].class, "stripes");
+
+    private final int counterCount;
+
+    private final AtomicLongArray base;
+
+    /**
+     * Lazily created on first contention, its length is a power of two. Counter {@code c} of stripe
+     * {@code s} is at index {@code c} of {@code stripes[s]}.
+     */
+    private volatile AtomicLongArray[] stripes;
+
+    StripedCounters(int counterCount) {
+        this.counterCount = counterCount;
+        this.base = new AtomicLongArray(counterCount);
+    }
+
+    void add(int counter, long x) {
+        AtomicLongArray[] ss = stripes;
+        if (ss == null) {
+            long v = base.get(counter);
+            if (base.compareAndSet(counter, v, v + x)) {
+                return;
+            }
+            ss = grow(null);
+        }
+        Striped64.HashCode hc = Striped64.threadHashCode.get();
+        int h = hc.code;
+        boolean collided = false;
+        for (; ; ) {
+            AtomicLongArray stripe = ss[h & (ss.length - 1)];
+            long v = stripe.get(counter);
+            if (stripe.compareAndSet(counter, v, v + x)) {
+                break;
+            }
+            // Like Striped64, only grow if the stripe picked after rehashing is contended too.
+            if (collided && ss.length < MAX_STRIPES) {
+                ss = grow(ss);
+                collided = false;
+            } else {
+                collided = true;
+                ss = stripes;
+            }
+            // Rehash to another stripe.
+            h ^= h << 13;
+            h ^= h >>> 17;
+            h ^= h << 5;
+        }
+        hc.code = h;
+    }
+
+    long sum(int counter) {
+        long sum = base.get(counter);
+        AtomicLongArray[] ss = stripes;
+        if (ss != null) {
+            for (AtomicLongArray stripe : ss) {
+                sum += stripe.get(counter);
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * Reset all counters to zero. Updates made concurrently may be lost.
+     */
+    void reset() {
+        for (int c = 0; c < counterCount; c++) {
+            base.set(c, 0);
+        }
+        AtomicLongArray[] ss = stripes;
+        if (ss != null) {
+            for (AtomicLongArray stripe : ss) {
+                for (int c = 0; c < counterCount; c++) {
+                    stripe.set(c, 0);
+                }
+            }
+        }
+    }
+
+    /**
+     * Get current number of stripes, 0 before the first contention.
+     */
+    int stripeCount() {
+        AtomicLongArray[] ss = stripes;
+        return ss == null ? 0 : ss.length;
+    }
+
+    /**
+     * Create the table with two stripes, or double the provided one, keeping its stripes.
+     *
+     * @return the current table, which another thread may have created or grown meanwhile
+     */
+    private AtomicLongArray[] grow(AtomicLongArray[] ss) {
+        int n = ss == null ? 0 : ss.length;
+        AtomicLongArray[] rs = new AtomicLongArray[n == 0 ? Math.min(2, MAX_STRIPES) : n << 1];
+        for (int i = 0; i < rs.length; i++) {
+            rs[i] = i < n ? ss[i] : new AtomicLongArray(counterCount + PAD);
+        }
+        if (STRIPES_UPDATER.compareAndSet(this, ss, rs)) {
+            return rs;
+        }
+        return stripes;
+    }
+
+    private static int tableSizeFor(int ncpu) {
+        int n = 1;
+        while (n < ncpu) {
+            n <<= 1;
+        }
+        return n;
+    }
+}
@@ -15,12 +15,17 @@
  */
 package com.alibaba.csp.sentinel.slots.statistic.metric;
 
-import com.alibaba.csp.sentinel.Constants;
 import com.alibaba.csp.sentinel.node.metric.MetricNode;
+import com.alibaba.csp.sentinel.slots.statistic.MetricEvent;
 import com.alibaba.csp.sentinel.slots.statistic.base.MetricBucket;
+import com.alibaba.csp.sentinel.slots.statistic.base.RtHistogram;
 import com.alibaba.csp.sentinel.slots.statistic.base.WindowWrap;
+import com.alibaba.csp.sentinel.util.RtUtil;
+import com.alibaba.csp.sentinel.util.TimeUtil;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 
 /**
@@ -40,7 +45,34 @@ public class ArrayMetric implements Metric {
      * @param intervalInSec    the total time span of this {@link ArrayMetric} in seconds.
      */
     public ArrayMetric(int windowLengthInMs, int intervalInSec) {
-        this.data = new MetricsLeapArray(windowLengthInMs, intervalInSec);
+        this(windowLengthInMs, intervalInSec, false);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param windowLengthInMs a single window bucket's time length in milliseconds.
+     * @param intervalInSec    the total time span of this {@link ArrayMetric} in seconds.
+     * @param rollingSum       whether to keep running totals, see {@link RollingSumMetricsLeapArray}.
+     */
+    public ArrayMetric(int windowLengthInMs, int intervalInSec, boolean rollingSum) {
+        this(windowLengthInMs, intervalInSec, rollingSum, false);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param windowLengthInMs a single window bucket's time length in milliseconds.
+     * @param intervalInSec    the total time span of this {@link ArrayMetric} in seconds.
+     * @param rollingSum       whether to keep running totals, see {@link RollingSumMetricsLeapArray}.
+     * @param rtHistogram      whether to record the RT distribution, see {@link #rtPercentile(double)}.
+     */
+    public ArrayMetric(int windowLengthInMs, int intervalInSec, boolean rollingSum, boolean rtHistogram) {
+        if (rollingSum) {
+            this.data = new RollingSumMetricsLeapArray(windowLengthInMs, intervalInSec, rtHistogram);
+        } else {
+            this.data = new MetricsLeapArray(windowLengthInMs, intervalInSec, rtHistogram);
+        }
     }
 
     /**
@@ -53,24 +85,18 @@ public class ArrayMetric implements Metric {
     @Override
     public long success() {
         data.currentWindow();
-        long success = 0;
-
-        List<MetricBucket> list = data.values();
-        for (MetricBucket window : list) {
-            success += window.success();
-        }
-        return success;
+        return data.sum(MetricEvent.SUCCESS);
     }
 
     @Override
     public long maxSuccess() {
         data.currentWindow();
         long success = 0;
-
-        List<MetricBucket> list = data.values();
-        for (MetricBucket window : list) {
-            if (window.success() > success) {
-                success = window.success();
+        long time = TimeUtil.currentTimeMillis();
+        for (int i = 0; i < data.getSampleCount(); i++) {
+            WindowWrap<MetricBucket> window = data.getValidWindow(i, time);
+            if (window != null && window.value().success() > success) {
+                success = window.value().success();
             }
         }
         return Math.max(success, 1);
@@ -79,62 +105,112 @@ public class ArrayMetric implements Metric {
     @Override
     public long exception() {
         data.currentWindow();
-        long exception = 0;
-        List<MetricBucket> list = data.values();
-        for (MetricBucket window : list) {
-            exception += window.exception();
-        }
-        return exception;
+        return data.sum(MetricEvent.EXCEPTION);
     }
 
     @Override
     public long block() {
         data.currentWindow();
-        long block = 0;
-        List<MetricBucket> list = data.values();
-        for (MetricBucket window : list) {
-            block += window.block();
-        }
-        return block;
+        return data.sum(MetricEvent.BLOCK);
     }
 
     @Override
     public long pass() {
         data.currentWindow();
-        long pass = 0;
-        List<MetricBucket> list = data.values();
-
-        for (MetricBucket window : list) {
-            pass += window.pass();
-        }
-        return pass;
+        return data.sum(MetricEvent.PASS);
     }
 
     @Override
     public long rt() {
         data.currentWindow();
-        long rt = 0;
-        List<MetricBucket> list = data.values();
-        for (MetricBucket window : list) {
-            rt += window.rt();
-        }
-        return rt;
+        return data.sum(MetricEvent.RT);
     }
 
     @Override
     public long minRt() {
         data.currentWindow();
-        long rt = Constants.TIME_DROP_VALVE;
-        List<MetricBucket> list = data.values();
-        for (MetricBucket window : list) {
-            if (window.minRt() < rt) {
-                rt = window.minRt();
+        long rt = RtUtil.MAX_RT;
+        long time = TimeUtil.currentTimeMillis();
+        for (int i = 0; i < data.getSampleCount(); i++) {
+            WindowWrap<MetricBucket> window = data.getValidWindow(i, time);
+            if (window != null && window.value().minRt() < rt) {
+                rt = window.value().minRt();
             }
         }
 
         return Math.max(1, rt);
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * <p>Histograms of all valid buckets are merged bucket by bucket. The valid windows are read once, so
+     * that a window rotated while merging cannot take part with a fresh histogram. The result is the highest
+     * RT counted by the histogram bucket holding the requested rank, see {@link RtHistogram}.</p>
+     */
+    @Override
+    public long rtPercentile(double percentile) {
+        if (!data.isRtHistogramEnabled()) {
+            return -1;
+        }
+        data.currentWindow();
+        long time = TimeUtil.currentTimeMillis();
+        RtHistogram[] histograms = new RtHistogram[data.getSampleCount()];
+        int size = 0;
+        long total = 0;
+        for (int i = 0; i < histograms.length; i++) {
+            WindowWrap<MetricBucket> window = data.getValidWindow(i, time);
+            if (window != null) {
+                RtHistogram histogram = window.value().rtHistogram();
+                histograms[size++] = histogram;
+                total += histogram.totalCount();
+            }
+        }
+        if (total == 0) {
+            return 0;
+        }
+
+        long rank = Math.max(1, (long)Math.ceil(total * Math.min(percentile, 100.0) / 100.0));
+        long count = 0;
+        int highest = 0;
+        for (int idx = 0; idx < RtHistogram.BUCKET_COUNT; idx++) {
+            long bucketCount = 0;
+            for (int i = 0; i < size; i++) {
+                bucketCount += histograms[i].count(idx);
+            }
+            if (bucketCount == 0) {
+                continue;
+            }
+            highest = idx;
+            count += bucketCount;
+            if (count >= rank) {
+                return RtHistogram.highestValueOf(idx);
+            }
+        }
+        // The buckets were read after the totals, so concurrent recording never makes them fall short.
+        // Should it happen anyway, the highest recorded RT is still the best answer.
+        return RtHistogram.highestValueOf(highest);
+    }
+
+    @Override
+    public MetricSnapshot snapshot() {
+        return snapshot(new MetricSnapshot());
+    }
+
+    @Override
+    public MetricSnapshot snapshot(MetricSnapshot snapshot) {
+        data.currentWindow();
+        snapshot.reset(data.getIntervalInMs(), data.getWindowLengthInMs());
+        long time = TimeUtil.currentTimeMillis();
+        for (int i = 0; i < data.getSampleCount(); i++) {
+            WindowWrap<MetricBucket> window = data.getValidWindow(i, time);
+            if (window != null) {
+                snapshot.add(window.value());
+            }
+        }
+        return snapshot;
+    }
+
     @Override
     public List<MetricNode> details() {
         List<MetricNode> details = new ArrayList<MetricNode>();
@@ -150,9 +226,9 @@ public class ArrayMetric implements Metric {
             long passQps = window.value().success();
             node.setSuccessQps(passQps);
             if (passQps != 0) {
-                node.setRt(window.value().rt() / passQps);
+                node.setRt(RtUtil.toMillis(window.value().rt() / passQps));
             } else {
-                node.setRt(window.value().rt());
+                node.setRt(RtUtil.toMillis(window.value().rt()));
             }
             node.setTimestamp(window.windowStart());
             details.add(node);
@@ -164,31 +240,99 @@ public class ArrayMetric implements Metric {
     @Override
     public MetricBucket[] windows() {
         data.currentWindow();
-        return data.values().toArray(new MetricBucket[data.values().size()]);
+        List<MetricBucket> values = data.values();
+        return values.toArray(new MetricBucket[values.size()]);
+    }
+
+    @Override
+    public int getWindowLengthInMs() {
+        return data.getWindowLengthInMs();
+    }
+
+    @Override
+    public int getIntervalInMs() {
+        return data.getIntervalInMs();
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>Every valid window is moved into the new window which contains its start time, so finer windows
+     * are merged into coarser ones. A window which only partly overlaps the new interval is clamped to
+     * the oldest new window, and its counts are scaled by the overlapping part of its elapsed time,
+     * assuming they are evenly spread. Updates made to this metric during the migration may be lost.</p>
+     */
+    @Override
+    public ArrayMetric resize(int windowLengthInMs, int intervalInSec) {
+        ArrayMetric target = new ArrayMetric(windowLengthInMs, intervalInSec,
+            data instanceof RollingSumMetricsLeapArray, data.isRtHistogramEnabled());
+        long time = TimeUtil.currentTimeMillis();
+        long currentStart = time - time % windowLengthInMs;
+        long validFrom = currentStart - (long)(target.data.getSampleCount() - 1) * windowLengthInMs;
+
+        List<WindowWrap<MetricBucket>> windows = data.list();
+        // Rolling-sum buckets must be created in time order, see RollingSumMetricsLeapArray.
+        Collections.sort(windows, new Comparator<WindowWrap<MetricBucket>>() {
+            @Override
+            public int compare(WindowWrap<MetricBucket> o1, WindowWrap<MetricBucket> o2) {
+                return o1.windowStart() < o2.windowStart() ? -1 : (o1.windowStart() == o2.windowStart() ? 0 : 1);
+            }
+        });
+        for (WindowWrap<MetricBucket> window : windows) {
+            long start = window.windowStart();
+            long end = Math.min(start + window.windowLength(), time + 1);
+            long from = Math.max(start, validFrom);
+            if (from >= end) {
+                continue;
+            }
+            double ratio = (double)(end - from) / (end - start);
+            target.data.currentWindow(from).value().add(window.value(), ratio);
+        }
+        return target;
     }
 
     @Override
     public void addException() {
+        addException(1);
+    }
+
+    @Override
+    public void addException(int count) {
         WindowWrap<MetricBucket> wrap = data.currentWindow();
-        wrap.value().addException();
+        wrap.value().add(MetricEvent.EXCEPTION, count);
     }
 
     @Override
     public void addBlock() {
+        addBlock(1);
+    }
+
+    @Override
+    public void addBlock(int count) {
         WindowWrap<MetricBucket> wrap = data.currentWindow();
-        wrap.value().addBlock();
+        wrap.value().add(MetricEvent.BLOCK, count);
     }
 
     @Override
     public void addSuccess() {
+        addSuccess(1);
+    }
+
+    @Override
+    public void addSuccess(int count) {
         WindowWrap<MetricBucket> wrap = data.currentWindow();
-        wrap.value().addSuccess();
+        wrap.value().add(MetricEvent.SUCCESS, count);
     }
 
     @Override
     public void addPass() {
+        addPass(1);
+    }
+
+    @Override
+    public void addPass(int count) {
         WindowWrap<MetricBucket> wrap = data.currentWindow();
-        wrap.value().addPass();
+        wrap.value().add(MetricEvent.PASS, count);
     }
 
     @Override
@@ -197,6 +341,12 @@ public class ArrayMetric implements Metric {
         wrap.value().addRT(rt);
     }
 
+    @Override
+    public void addRT(long rt, int count) {
+        WindowWrap<MetricBucket> wrap = data.currentWindow();
+        wrap.value().addRT(rt, count);
+    }
+
     @Override
     public void debugQps() {
         data.currentWindow();
@@ -59,21 +59,70 @@ public interface Metric {
     long pass();
 
     /**
-     * Get total RT.
+     * Get total RT, in the unit given by {@link com.alibaba.csp.sentinel.util.RtUtil}.
      *
      * @return total RT
      */
     long rt();
 
     /**
-     * Get the minimal RT.
+     * Get the minimal RT, in the unit given by {@link com.alibaba.csp.sentinel.util.RtUtil}.
      *
      * @return minimal RT
      */
     long minRt();
 
+    /**
+     * Get the RT at provided percentile of all valid buckets.
+     *
+     * @param percentile the percentile, from 0 to 100, e.g. 99 for p99
+     * @return the RT at the percentile in the recorded unit, 0 if no RT is recorded, or -1 if RT histograms
+     * are not enabled
+     */
+    long rtPercentile(double percentile);
+
+    /**
+     * Aggregate all counters of the sliding window in a single pass.
+     *
+     * @return a new snapshot of current window
+     */
+    MetricSnapshot snapshot();
+
+    /**
+     * Aggregate all counters of the sliding window in a single pass into the provided snapshot,
+     * so that the caller may reuse the snapshot without allocation.
+     *
+     * @param snapshot the snapshot to fill, all former values will be overwritten
+     * @return the provided snapshot
+     */
+    MetricSnapshot snapshot(MetricSnapshot snapshot);
+
     List<MetricNode> details();
 
+    /**
+     * Get the time length of a single bucket.
+     *
+     * @return window length in milliseconds
+     */
+    int getWindowLengthInMs();
+
+    /**
+     * Get the total time span of the sliding window.
+     *
+     * @return interval in milliseconds
+     */
+    int getIntervalInMs();
+
+    /**
+     * Create a metric with another window layout, carrying over counts of the current one that still
+     * fall inside the new interval. This metric itself is left untouched.
+     *
+     * @param windowLengthInMs a single window bucket's time length in milliseconds.
+     * @param intervalInSec    the total time span of the new metric in seconds.
+     * @return the new metric
+     */
+    Metric resize(int windowLengthInMs, int intervalInSec);
+
     /**
      * Get the raw window array.
      *
@@ -86,21 +135,49 @@ public interface Metric {
      */
     void addException();
 
+    /**
+     * Add given count to the current exception count.
+     *
+     * @param count count to add
+     */
+    void addException(int count);
+
     /**
      * Increment by one the current blovk count.
      */
     void addBlock();
 
+    /**
+     * Add given count to the current block count.
+     *
+     * @param count count to add
+     */
+    void addBlock(int count);
+
     /**
      * Increment by one the current success count.
      */
     void addSuccess();
 
+    /**
+     * Add given count to the current success count.
+     *
+     * @param count count to add
+     */
+    void addSuccess(int count);
+
     /**
      * Increment by one the current pass count.
      */
     void addPass();
 
+    /**
+     * Add given count to the current pass count.
+     *
+     * @param count count to add
+     */
+    void addPass(int count);
+
     /**
      * Add given RT to current total RT.
      *
@@ -108,6 +185,14 @@ public interface Metric {
      */
     void addRT(long rt);
 
+    /**
+     * Add the RT of provided count of successes to current total RT, each taking the given time.
+     *
+     * @param rt    RT of each success
+     * @param count count of successes
+     */
+    void addRT(long rt, int count);
+
     // Tool methods.
 
     void debugQps();
@@ -0,0 +1,188 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.statistic.metric;
+
+import com.alibaba.csp.sentinel.slots.statistic.base.MetricBucket;
+import com.alibaba.csp.sentinel.util.RtUtil;
+
+/**
+ * <p>
+ * Aggregated statistics of all valid buckets in a {@link Metric}, collected in a single pass
+ * over the sliding window.
+ * </p>
+ * <p>
+ * Reading several counters one by one (e.g. {@link Metric#success()} then {@link Metric#rt()}) walks
+ * the window once per counter. When more than one counter is needed, take a snapshot instead.
+ * A snapshot instance is not thread-safe, but it can be reused via {@link Metric#snapshot(MetricSnapshot)}.
+ * </p>
+ */
+public class MetricSnapshot {
+
+    private long pass;
+    private long block;
+    private long success;
+    private long exception;
+    private long rt;
+    private long minRt;
+    private long maxRt;
+    private long maxSuccess;
+
+    private int intervalInMs = 1000;
+    private int windowLengthInMs = 1000;
+
+    void reset(int intervalInMs, int windowLengthInMs) {
+        this.intervalInMs = intervalInMs;
+        this.windowLengthInMs = windowLengthInMs;
+        this.pass = 0;
+        this.block = 0;
+        this.success = 0;
+        this.exception = 0;
+        this.rt = 0;
+        this.minRt = RtUtil.MAX_RT;
+        this.maxRt = 0;
+        this.maxSuccess = 0;
+    }
+
+    void add(MetricBucket bucket) {
+        pass += bucket.pass();
+        block += bucket.block();
+        exception += bucket.exception();
+        rt += bucket.rt();
+        long bucketSuccess = bucket.success();
+        success += bucketSuccess;
+        if (bucketSuccess > maxSuccess) {
+            maxSuccess = bucketSuccess;
+        }
+        long bucketMinRt = bucket.minRt();
+        if (bucketMinRt < minRt) {
+            minRt = bucketMinRt;
+        }
+        long bucketMaxRt = bucket.maxRt();
+        if (bucketMaxRt > maxRt) {
+            maxRt = bucketMaxRt;
+        }
+    }
+
+    public long pass() {
+        return pass;
+    }
+
+    public long block() {
+        return block;
+    }
+
+    public long success() {
+        return success;
+    }
+
+    public long exception() {
+        return exception;
+    }
+
+    /**
+     * Get the total RT, in the unit given by {@link RtUtil}.
+     *
+     * @return the total RT
+     */
+    public long rt() {
+        return rt;
+    }
+
+    /**
+     * Get the minimal RT in milliseconds.
+     *
+     * @return the minimal RT, at least 1
+     */
+    public long minRt() {
+        return Math.max(1, RtUtil.toMillis(minRt));
+    }
+
+    /**
+     * Get the minimal RT in microseconds.
+     *
+     * @return the minimal RT, at least 1
+     */
+    public long minRtInMicros() {
+        return Math.max(1, RtUtil.toMicros(minRt));
+    }
+
+    /**
+     * Get the maximal RT of a single invocation in milliseconds.
+     *
+     * @return the maximal RT
+     */
+    public long maxRt() {
+        return RtUtil.toMillis(maxRt);
+    }
+
+    /**
+     * Get the max success count of a single bucket, same as {@link Metric#maxSuccess()}.
+     *
+     * @return max success count of a single bucket, at least 1
+     */
+    public long maxSuccess() {
+        return Math.max(maxSuccess, 1);
+    }
+
+    public long passQps() {
+        return pass * 1000 / intervalInMs;
+    }
+
+    public long blockQps() {
+        return block * 1000 / intervalInMs;
+    }
+
+    public long successQps() {
+        return success * 1000 / intervalInMs;
+    }
+
+    public long exceptionQps() {
+        return exception * 1000 / intervalInMs;
+    }
+
+    public long avgRt() {
+        if (success == 0) {
+            return 0;
+        }
+        return RtUtil.toMillis(rt / success);
+    }
+
+    public long avgRtInMicros() {
+        if (success == 0) {
+            return 0;
+        }
+        return RtUtil.toMicros(rt) / success;
+    }
+
+    public long maxSuccessQps() {
+        return maxSuccess() * 1000 / windowLengthInMs;
+    }
+
+    @Override
+    public String toString() {
+        return "MetricSnapshot{" +
+            "pass=" + pass +
+            ", block=" + block +
+            ", success=" + success +
+            ", exception=" + exception +
+            ", rt=" + rt +
+            ", minRt=" + minRt +
+            ", maxRt=" + maxRt +
+            ", maxSuccess=" + maxSuccess +
+            ", intervalInMs=" + intervalInMs +
+            '}';
+    }
+}
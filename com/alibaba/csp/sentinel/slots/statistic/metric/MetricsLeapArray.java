@@ -15,9 +15,11 @@
  */
 package com.alibaba.csp.sentinel.slots.statistic.metric;
 
+import com.alibaba.csp.sentinel.slots.statistic.MetricEvent;
 import com.alibaba.csp.sentinel.slots.statistic.base.LeapArray;
 import com.alibaba.csp.sentinel.slots.statistic.base.MetricBucket;
 import com.alibaba.csp.sentinel.slots.statistic.base.WindowWrap;
+import com.alibaba.csp.sentinel.util.TimeUtil;
 
 /**
  * The fundamental data structure for metric statistics in a time window.
@@ -33,6 +35,8 @@ import com.alibaba.csp.sentinel.slots.statistic.base.WindowWrap;
  */
 public class MetricsLeapArray extends LeapArray<MetricBucket> {
 
+    private final boolean rtHistogram;
+
     /**
      * Constructor
      *
@@ -40,18 +44,45 @@ public class MetricsLeapArray extends LeapArray<MetricBucket> {
      * @param intervalInSec    the total time span of this {@link MetricsLeapArray} in seconds.
      */
     public MetricsLeapArray(int windowLengthInMs, int intervalInSec) {
+        this(windowLengthInMs, intervalInSec, false);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param windowLengthInMs a single window bucket's time length in milliseconds.
+     * @param intervalInSec    the total time span of this {@link MetricsLeapArray} in seconds.
+     * @param rtHistogram      whether buckets record the RT distribution.
+     */
+    public MetricsLeapArray(int windowLengthInMs, int intervalInSec, boolean rtHistogram) {
         super(windowLengthInMs, intervalInSec);
+        this.rtHistogram = rtHistogram;
     }
 
     @Override
     public MetricBucket newEmptyBucket() {
-        return new MetricBucket();
+        return new MetricBucket(rtHistogram);
     }
 
-    @Override
-    protected WindowWrap<MetricBucket> resetWindowTo(WindowWrap<MetricBucket> w, long startTime) {
-        w.resetTo(startTime);
-        w.value().reset();
-        return w;
+    public boolean isRtHistogramEnabled() {
+        return rtHistogram;
+    }
+
+    /**
+     * Get the sum of provided event over all valid buckets at current timestamp.
+     *
+     * @param event the metric event
+     * @return sum of the event in the whole interval
+     */
+    public long sum(MetricEvent event) {
+        long sum = 0;
+        long time = TimeUtil.currentTimeMillis();
+        for (int i = 0; i < sampleCount; i++) {
+            WindowWrap<MetricBucket> window = getValidWindow(i, time);
+            if (window != null) {
+                sum += window.value().get(event);
+            }
+        }
+        return sum;
     }
 }
@@ -0,0 +1,126 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.statistic.metric;
+
+import com.alibaba.csp.sentinel.slots.statistic.MetricEvent;
+import com.alibaba.csp.sentinel.slots.statistic.base.MetricBucket;
+import com.alibaba.csp.sentinel.slots.statistic.base.WindowWrap;
+import com.alibaba.csp.sentinel.util.TimeUtil;
+
+/**
+ * <p>
+ * A {@link MetricsLeapArray} whose sums over the whole interval are read in constant time, no matter
+ * how many buckets it holds.
+ * </p>
+ * <p>
+ * Besides its own bucket, every update is also added to running totals which never expire. A new bucket
+ * records the running totals at the moment it is created, so the sum of the interval is the running total
+ * minus the totals recorded by the oldest valid bucket. Under steady traffic the oldest valid bucket is
+ * found on the first probe. Nothing is subtracted when a bucket rotates out, so an update that lands in a
+ * bucket right after it is replaced only shifts one count into the next bucket, and the totals never drift.
+ * </p>
+ * <p>
+ * The price is one more striped update per write. Reads of per-bucket values such as
+ * {@link ArrayMetric#maxSuccess()} and {@link ArrayMetric#minRt()} still walk the buckets.
+ * </p>
+ */
+public class RollingSumMetricsLeapArray extends MetricsLeapArray {
+
+    private static final MetricEvent[] EVENTS = MetricEvent.values();
+
+    private final MetricBucket totals = new MetricBucket();
+
+    /**
+     * Constructor
+     *
+     * @param windowLengthInMs a single window bucket's time length in milliseconds.
+     * @param intervalInSec    the total time span of this {@link RollingSumMetricsLeapArray} in seconds.
+     */
+    public RollingSumMetricsLeapArray(int windowLengthInMs, int intervalInSec) {
+        this(windowLengthInMs, intervalInSec, false);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param windowLengthInMs a single window bucket's time length in milliseconds.
+     * @param intervalInSec    the total time span of this {@link RollingSumMetricsLeapArray} in seconds.
+     * @param rtHistogram      whether buckets record the RT distribution.
+     */
+    public RollingSumMetricsLeapArray(int windowLengthInMs, int intervalInSec, boolean rtHistogram) {
+        super(windowLengthInMs, intervalInSec, rtHistogram);
+    }
+
+    @Override
+    public MetricBucket newEmptyBucket() {
+        return new RollingMetricBucket(totals, isRtHistogramEnabled());
+    }
+
+    @Override
+    public long sum(MetricEvent event) {
+        long time = TimeUtil.currentTimeMillis();
+        WindowWrap<MetricBucket> oldest = oldestValidWindow(time);
+        if (oldest == null) {
+            return 0;
+        }
+        return totals.get(event) - ((RollingMetricBucket)oldest.value()).startTotal(event);
+    }
+
+    /**
+     * Probe window starts from the oldest one still inside the interval towards the current one,
+     * and return the first window which is actually present.
+     */
+    private WindowWrap<MetricBucket> oldestValidWindow(long time) {
+        long currentStart = time - time % windowLengthInMs;
+        for (int k = sampleCount - 1; k >= 0; k--) {
+            long start = currentStart - (long)k * windowLengthInMs;
+            int idx = (int)((start / windowLengthInMs) % array.length());
+            WindowWrap<MetricBucket> window = array.get(idx);
+            if (window != null && window.windowStart() == start) {
+                return window;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * A bucket which records the running totals when created, and forwards every update to them.
+     */
+    static final class RollingMetricBucket extends MetricBucket {
+
+        private final MetricBucket totals;
+        private final long[] startTotals = new long[EVENTS.length];
+
+        RollingMetricBucket(MetricBucket totals, boolean rtHistogram) {
+            super(rtHistogram);
+            this.totals = totals;
+            for (MetricEvent event : EVENTS) {
+                startTotals[event.ordinal()] = totals.get(event);
+            }
+        }
+
+        long startTotal(MetricEvent event) {
+            return startTotals[event.ordinal()];
+        }
+
+        @Override
+        public MetricBucket add(MetricEvent event, long n) {
+            super.add(event, n);
+            totals.add(event, n);
+            return this;
+        }
+    }
+}
@@ -29,8 +29,10 @@ import com.alibaba.csp.sentinel.log.RecordLog;
 import com.alibaba.csp.sentinel.property.DynamicSentinelProperty;
 import com.alibaba.csp.sentinel.property.SentinelProperty;
 import com.alibaba.csp.sentinel.property.SimplePropertyListener;
+import com.alibaba.csp.sentinel.slotchain.ResourceRegistry;
 import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
 import com.alibaba.csp.sentinel.slots.block.BlockException;
+import com.alibaba.csp.sentinel.slots.statistic.metric.MetricSnapshot;
 
 /**
  * <p>
@@ -186,6 +188,7 @@ public class SystemRuleManager {
             }
 
 
+            ResourceRegistry.recompileChains();
             RecordLog.info(String.format("[SystemRuleManager] Current system check status: %s, highestSystemLoad: "
                 + highestSystemLoad + ", " + "maxRt: %d, maxThread: %d, maxQps: " + qps, checkSystemStatus.get(), maxRt, maxThread));
         }
@@ -246,8 +249,10 @@ public class SystemRuleManager {
             checkStatus = true;
         }
 
-        checkSystemStatus.set(checkStatus);
-
+        if (checkSystemStatus.getAndSet(checkStatus) != checkStatus) {
+            // Rules may also be loaded here directly, so let the system slots join or leave the chains.
+            ResourceRegistry.recompileChains();
+        }
     }
 
     /**
@@ -257,41 +262,57 @@ public class SystemRuleManager {
      * @throws BlockException when any system rule's threshold is exceeded.
      */
     public static void checkSystem(ResourceWrapper resourceWrapper) throws BlockException {
+        SystemBlockException e = tryCheckSystem(resourceWrapper);
+        if (e != null) {
+            throw e;
+        }
+    }
+
+    /**
+     * Same as {@link #checkSystem(ResourceWrapper)}, but the exception is returned instead of thrown.
+     *
+     * @param resourceWrapper the resource
+     * @return the exception if the system is overloaded, otherwise null
+     */
+    public static SystemBlockException tryCheckSystem(ResourceWrapper resourceWrapper) {
         // Ensure the checking switch is on.
         if (!checkSystemStatus.get()) {
-            return;
+            return null;
         }
 
         // for inbound traffic only
         if (resourceWrapper.getType() != EntryType.IN) {
-            return;
+            return null;
         }
 
+        // Aggregate the inbound statistics in a single pass.
+        MetricSnapshot snapshot = Constants.ENTRY_NODE == null ? null : Constants.ENTRY_NODE.snapshotInSecond();
+
         // total qps
-        double currentQps = Constants.ENTRY_NODE == null ? 0.0 : Constants.ENTRY_NODE.successQps();
+        double currentQps = snapshot == null ? 0.0 : snapshot.successQps();
         if (currentQps > qps) {
-            throw new SystemBlockException(resourceWrapper.getName(), "qps");
+            return new SystemBlockException(resourceWrapper.getName(), "qps");
         }
 
         // total thread
         int currentThread = Constants.ENTRY_NODE == null ? 0 : Constants.ENTRY_NODE.curThreadNum();
         if (currentThread > maxThread) {
-            throw new SystemBlockException(resourceWrapper.getName(), "thread");
+            return new SystemBlockException(resourceWrapper.getName(), "thread");
         }
 
-        double rt = Constants.ENTRY_NODE == null ? 0 : Constants.ENTRY_NODE.avgRt();
+        double rt = snapshot == null ? 0 : snapshot.avgRt();
         if (rt > maxRt) {
-            throw new SystemBlockException(resourceWrapper.getName(), "rt");
+            return new SystemBlockException(resourceWrapper.getName(), "rt");
         }
 
         // BBR algorithm.
         if (highestSystemLoadIsSet && getCurrentSystemAvgLoad() > highestSystemLoad) {
             if (currentThread > 1 &&
-                currentThread > Constants.ENTRY_NODE.maxSuccessQps() * Constants.ENTRY_NODE.minRt() / 1000) {
-                throw new SystemBlockException(resourceWrapper.getName(), "load");
+                currentThread > snapshot.maxSuccessQps() * snapshot.minRtInMicros() / 1000000) {
+                return new SystemBlockException(resourceWrapper.getName(), "load");
             }
         }
-
+        return null;
     }
 
     public static double getCurrentSystemAvgLoad() {
@@ -20,14 +20,22 @@ import com.alibaba.csp.sentinel.node.DefaultNode;
 import com.alibaba.csp.sentinel.slotchain.AbstractLinkedProcessorSlot;
 import com.alibaba.csp.sentinel.slotchain.ProcessorSlot;
 import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
+import com.alibaba.csp.sentinel.slotchain.RuleAwareSlot;
+import com.alibaba.csp.sentinel.slots.block.BlockException;
 
 /**
- * A {@link ProcessorSlot} that dedicates to {@link SystemRule} checking.
+ * A {@link ProcessorSlot} that dedicates to {@link SystemRule} checking. It is left out of the chain while
+ * no system rule is loaded, see {@link RuleAwareSlot}.
  *
  * @author jialiang.linjl
  * @author leyou
  */
-public class SystemSlot extends AbstractLinkedProcessorSlot<DefaultNode> {
+public class SystemSlot extends AbstractLinkedProcessorSlot<DefaultNode> implements RuleAwareSlot {
+
+    @Override
+    public boolean bindRules(ResourceWrapper resourceWrapper) {
+        return SystemRuleManager.getCheckSystemStatus();
+    }
 
     @Override
     public void entry(Context context, ResourceWrapper resourceWrapper, DefaultNode node, int count, Object... args)
@@ -36,6 +44,16 @@ public class SystemSlot extends AbstractLinkedProcessorSlot<DefaultNode> {
         fireEntry(context, resourceWrapper, node, count, args);
     }
 
+    @Override
+    public BlockException tryEntry(Context context, ResourceWrapper resourceWrapper, DefaultNode node, int count,
+                                   Object... args) throws Throwable {
+        SystemBlockException e = SystemRuleManager.tryCheckSystem(resourceWrapper);
+        if (e != null) {
+            return e;
+        }
+        return fireTryEntry(context, resourceWrapper, node, count, args);
+    }
+
     @Override
     public void exit(Context context, ResourceWrapper resourceWrapper, int count, Object... args) {
         fireExit(context, resourceWrapper, count, args);
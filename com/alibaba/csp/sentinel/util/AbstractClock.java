@@ -0,0 +1,50 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.util;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A {@link Clock} whose nanosecond time is {@link System#nanoTime()}, so that implementations only have to
+ * provide the millisecond time. Custom clocks written before {@link #nanoTime()} and {@link #sleepNanos(long)}
+ * were added to {@link Clock} keep working by extending this class.
+ */
+public abstract class AbstractClock implements Clock {
+
+    @Override
+    public long nanoTime() {
+        return System.nanoTime();
+    }
+
+    @Override
+    public void sleepNanos(long nanos) throws InterruptedException {
+        parkNanos(nanos);
+    }
+
+    /**
+     * Park current thread until provided time has passed on {@link System#nanoTime()}, which is more precise
+     * than {@link Thread#sleep(long)} for waits below a few milliseconds.
+     */
+    static void parkNanos(long nanos) throws InterruptedException {
+        long deadline = System.nanoTime() + nanos;
+        for (long remaining = nanos; remaining > 0; remaining = deadline - System.nanoTime()) {
+            LockSupport.parkNanos(remaining);
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+        }
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.util;
+
+/**
+ * <p>
+ * Source of the millisecond time used by all Sentinel statistics and flow controllers, and of the
+ * nanosecond time used by the rate limiters, see {@link TimeUtil}.
+ * </p>
+ * <p>
+ * A custom implementation can be provided via the SPI mechanism, by adding its full class name to
+ * {@code META-INF/services/com.alibaba.csp.sentinel.util.Clock}. Otherwise the built-in clock is
+ * chosen by {@link com.alibaba.csp.sentinel.config.SentinelConfig#CLOCK}.
+ * </p>
+ * <p>
+ * Implementations should extend {@link AbstractClock}, which provides the nanosecond methods on top of
+ * {@link System#nanoTime()}.
+ * </p>
+ *
+ * @see TickClock
+ * @see SystemClock
+ * @see VirtualClock
+ */
+public interface Clock {
+
+    /**
+     * Get current time in milliseconds.
+     *
+     * @return current time in milliseconds
+     */
+    long currentTimeMillis();
+
+    /**
+     * Wait for provided time, as measured by this clock.
+     *
+     * @param millis time to wait in milliseconds
+     * @throws InterruptedException if interrupted while waiting
+     */
+    void sleep(long millis) throws InterruptedException;
+
+    /**
+     * Get current value of a nanosecond time source, like {@link System#nanoTime()}. Only differences between
+     * two values are meaningful.
+     *
+     * @return current time in nanoseconds
+     */
+    long nanoTime();
+
+    /**
+     * Wait for provided time with nanosecond precision, as measured by {@link #nanoTime()}.
+     *
+     * @param nanos time to wait in nanoseconds
+     * @throws InterruptedException if interrupted while waiting
+     */
+    void sleepNanos(long nanos) throws InterruptedException;
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.util;
+
+import com.alibaba.csp.sentinel.Constants;
+import com.alibaba.csp.sentinel.config.SentinelConfig;
+
+/**
+ * <p>
+ * Unit of the response time recorded by statistics.
+ * </p>
+ * <p>
+ * By default RT is measured with the millisecond clock of {@link TimeUtil}, so every call faster than
+ * one tick records 0 or 1. When {@link SentinelConfig#STATISTIC_RT_MICROS} is enabled, RT is measured
+ * with {@link System#nanoTime()} and recorded in microseconds. The mode is read once at startup, as
+ * statistics of both units must never be mixed. Raw RT values held by metrics are in the recorded unit;
+ * use {@link #toMillis(long)} and {@link #toMicros(long)} to convert them.
+ * </p>
+ */
+public final class RtUtil {
+
+    /**
+     * Whether RT is recorded in microseconds.
+     */
+    public static final boolean MICROS_ENABLED = SentinelConfig.statisticRtMicros();
+
+    /**
+     * {@link Constants#TIME_DROP_VALVE} in the recorded unit.
+     */
+    public static final long MAX_RT = MICROS_ENABLED ? Constants.TIME_DROP_VALVE * 1000L : Constants.TIME_DROP_VALVE;
+
+    /**
+     * Get the high resolution start time of an invocation.
+     *
+     * @return {@link System#nanoTime()} if RT is recorded in microseconds, otherwise 0
+     */
+    public static long startNanoTime() {
+        return MICROS_ENABLED ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Get the RT of an invocation in the recorded unit, capped by {@link #MAX_RT}.
+     *
+     * @param createTime     start time in milliseconds
+     * @param createNanoTime start time from {@link #startNanoTime()}
+     * @return the RT
+     */
+    public static long rtSince(long createTime, long createNanoTime) {
+        long rt;
+        if (MICROS_ENABLED) {
+            rt = (System.nanoTime() - createNanoTime) / 1000;
+        } else {
+            rt = TimeUtil.currentTimeMillis() - createTime;
+        }
+        return rt > MAX_RT ? MAX_RT : rt;
+    }
+
+    public static long toMillis(long rt) {
+        return MICROS_ENABLED ? rt / 1000 : rt;
+    }
+
+    public static long toMicros(long rt) {
+        return MICROS_ENABLED ? rt : rt * 1000;
+    }
+
+    private RtUtil() {}
+}
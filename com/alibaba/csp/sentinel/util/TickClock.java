@@ -0,0 +1,115 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.util;
+
+import java.util.concurrent.TimeUnit;
+
+import com.alibaba.csp.sentinel.Constants;
+
+/**
+ * <p>
+ * A {@link Clock} whose time is refreshed every millisecond by a daemon thread, so that reading it is a
+ * plain volatile read.
+ * </p>
+ * <p>
+ * In adaptive mode, the thread checks the QPS of {@link Constants#ENTRY_NODE} once a second. Below the
+ * idle threshold it stops ticking: reads fall back to {@link System#currentTimeMillis()} and the thread
+ * only wakes up once a second. It resumes ticking once the QPS reaches twice the threshold. Note that
+ * only inbound traffic is counted by the entry node.
+ * </p>
+ */
+public class TickClock extends AbstractClock {
+
+    private static final long CHECK_INTERVAL_MS = 1000;
+
+    private final boolean adaptive;
+    private final long idleQps;
+
+    private volatile long currentTimeMillis = System.currentTimeMillis();
+    private volatile boolean ticking = true;
+    private volatile boolean stopped = false;
+
+    public TickClock() {
+        this(false, 0);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param adaptive whether to stop ticking when traffic is low
+     * @param idleQps  inbound QPS below which the clock stops ticking, only used in adaptive mode
+     */
+    public TickClock(boolean adaptive, long idleQps) {
+        this.adaptive = adaptive;
+        this.idleQps = idleQps;
+
+        Thread daemon = new Thread(new TickTask());
+        daemon.setDaemon(true);
+        daemon.setName("sentinel-time-tick-thread");
+        daemon.start();
+    }
+
+    @Override
+    public long currentTimeMillis() {
+        return ticking ? currentTimeMillis : System.currentTimeMillis();
+    }
+
+    @Override
+    public void sleep(long millis) throws InterruptedException {
+        if (millis > 0) {
+            Thread.sleep(millis);
+        }
+    }
+
+    public boolean isTicking() {
+        return ticking;
+    }
+
+    /**
+     * Stop the tick thread. Reads fall back to {@link System#currentTimeMillis()} afterwards.
+     */
+    public void stop() {
+        stopped = true;
+        ticking = false;
+    }
+
+    private class TickTask implements Runnable {
+
+        @Override
+        public void run() {
+            // Delay the first check, so that the entry node is never touched while Sentinel is initializing.
+            long nextCheckTime = System.currentTimeMillis() + CHECK_INTERVAL_MS;
+            while (!stopped) {
+                long now = System.currentTimeMillis();
+                currentTimeMillis = now;
+                if (adaptive && now >= nextCheckTime) {
+                    nextCheckTime = now + CHECK_INTERVAL_MS;
+                    long qps = Constants.ENTRY_NODE.totalQps();
+                    if (ticking && qps < idleQps) {
+                        ticking = false;
+                    } else if (!ticking && qps >= idleQps * 2) {
+                        ticking = true;
+                    }
+                }
+                try {
+                    TimeUnit.MILLISECONDS.sleep(ticking ? 1 : CHECK_INTERVAL_MS);
+                } catch (Throwable e) {
+
+                }
+            }
+        }
+    }
+}
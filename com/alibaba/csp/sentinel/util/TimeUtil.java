@@ -15,38 +15,101 @@
  */
 package com.alibaba.csp.sentinel.util;
 
-import java.util.concurrent.TimeUnit;
+import java.util.ServiceLoader;
+
+import com.alibaba.csp.sentinel.config.SentinelConfig;
+import com.alibaba.csp.sentinel.log.RecordLog;
 
 /**
- * Provides millisecond-level time of OS.
+ * <p>
+ * Provides millisecond-level time of OS, and the nanosecond time used by rate limiters.
+ * </p>
+ * <p>
+ * The time is read from a {@link Clock}. A custom clock registered via SPI takes precedence, otherwise
+ * the built-in one is chosen by {@link SentinelConfig#CLOCK}:
+ * </p>
+ * <ul>
+ * <li>{@code tick} (default): a {@link TickClock} refreshed every millisecond by a daemon thread</li>
+ * <li>{@code adaptive}: a {@link TickClock} which stops ticking while the inbound QPS is below
+ * {@link SentinelConfig#CLOCK_IDLE_QPS}</li>
+ * <li>{@code direct}: a {@link SystemClock} without background thread</li>
+ * </ul>
  *
  * @author qinan.qn
  */
 public final class TimeUtil {
 
-    private static volatile long currentTimeMillis;
-
-    static {
-        currentTimeMillis = System.currentTimeMillis();
-        Thread daemon = new Thread(new Runnable() {
-            @Override
-            public void run() {
-                while (true) {
-                    currentTimeMillis = System.currentTimeMillis();
-                    try {
-                        TimeUnit.MILLISECONDS.sleep(1);
-                    } catch (Throwable e) {
-
-                    }
-                }
-            }
-        });
-        daemon.setDaemon(true);
-        daemon.setName("sentinel-time-tick-thread");
-        daemon.start();
-    }
+    private static volatile Clock clock = resolveClock();
 
     public static long currentTimeMillis() {
-        return currentTimeMillis;
+        return clock.currentTimeMillis();
+    }
+
+    /**
+     * Wait for provided time, as measured by current clock.
+     *
+     * @param millis time to wait in milliseconds
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public static void sleep(long millis) throws InterruptedException {
+        clock.sleep(millis);
+    }
+
+    /**
+     * Get current nanosecond time of current clock, see {@link Clock#nanoTime()}.
+     *
+     * @return current time in nanoseconds
+     */
+    public static long nanoTime() {
+        return clock.nanoTime();
+    }
+
+    /**
+     * Wait for provided time with nanosecond precision, as measured by current clock.
+     *
+     * @param nanos time to wait in nanoseconds
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public static void sleepNanos(long nanos) throws InterruptedException {
+        clock.sleepNanos(nanos);
     }
+
+    public static Clock getClock() {
+        return clock;
+    }
+
+    /**
+     * Replace current clock, e.g. with a {@link VirtualClock} in tests. A replaced {@link TickClock} is stopped.
+     *
+     * @param newClock the new clock
+     */
+    public static void setClock(Clock newClock) {
+        AssertUtil.notNull(newClock, "clock cannot be null");
+        Clock oldClock = clock;
+        clock = newClock;
+        if (oldClock instanceof TickClock && oldClock != newClock) {
+            ((TickClock)oldClock).stop();
+        }
+    }
+
+    private static Clock resolveClock() {
+        try {
+            for (Clock custom : ServiceLoader.load(Clock.class)) {
+                RecordLog.info("[TimeUtil] Using custom clock: " + custom.getClass().getCanonicalName());
+                return custom;
+            }
+        } catch (Throwable t) {
+            RecordLog.warn("[TimeUtil] Failed to load custom clock, using built-in one", t);
+        }
+        String type = SentinelConfig.clock();
+        if ("direct".equalsIgnoreCase(type)) {
+            return new SystemClock();
+        }
+        if ("adaptive".equalsIgnoreCase(type)) {
+            return new TickClock(true, SentinelConfig.clockIdleQps());
+        }
+        return new TickClock();
+    }
+
+    private TimeUtil() {}
 }
@@ -0,0 +1,95 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.util;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>
+ * A {@link Clock} which only moves when told to, for deterministic tests of time-based logic such as
+ * sliding windows, flow controllers and rate limiters. {@link #sleep(long)} and {@link #sleepNanos(long)}
+ * return at once after advancing the time. The millisecond and nanosecond time move together: the
+ * nanosecond time is the millisecond time scaled to nanoseconds, plus the nanoseconds advanced since.
+ * </p>
+ * <p>
+ * Install it with {@link TimeUtil#setClock(Clock)}.
+ * </p>
+ */
+public class VirtualClock implements Clock {
+
+    private static final long NANOS_PER_MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final AtomicLong nanoTime;
+
+    public VirtualClock() {
+        this(System.currentTimeMillis());
+    }
+
+    public VirtualClock(long currentTimeMillis) {
+        this.nanoTime = new AtomicLong(currentTimeMillis * NANOS_PER_MILLI);
+    }
+
+    @Override
+    public long currentTimeMillis() {
+        return nanoTime.get() / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public void sleep(long millis) {
+        advance(millis);
+    }
+
+    @Override
+    public long nanoTime() {
+        return nanoTime.get();
+    }
+
+    @Override
+    public void sleepNanos(long nanos) {
+        advanceNanos(nanos);
+    }
+
+    /**
+     * Move the time forward.
+     *
+     * @param millis time to move in milliseconds, ignored if not positive
+     * @return the new time
+     */
+    public long advance(long millis) {
+        if (millis <= 0) {
+            return currentTimeMillis();
+        }
+        return nanoTime.addAndGet(millis * NANOS_PER_MILLI) / NANOS_PER_MILLI;
+    }
+
+    /**
+     * Move the time forward with nanosecond precision.
+     *
+     * @param nanos time to move in nanoseconds, ignored if not positive
+     * @return the new nanosecond time
+     */
+    public long advanceNanos(long nanos) {
+        if (nanos <= 0) {
+            return nanoTime.get();
+        }
+        return nanoTime.addAndGet(nanos);
+    }
+
+    public void setCurrentTimeMillis(long currentTimeMillis) {
+        this.nanoTime.set(currentTimeMillis * NANOS_PER_MILLI);
+    }
+}